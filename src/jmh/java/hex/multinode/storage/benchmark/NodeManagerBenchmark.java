@@ -0,0 +1,136 @@
+package hex.multinode.storage.benchmark;
+
+import hex.multinode.storage.NodeStorageApplication;
+import hex.multinode.storage.model.data.MultiNode;
+import hex.multinode.storage.model.dto.GraphImportDTO;
+import hex.multinode.storage.model.dto.NodeDTO;
+import hex.multinode.storage.service.NodeManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Manager operations end to end, with a pre-loaded story graph of graphSize nodes:
+ * every node forks to the next two ones. The storage param compares the default
+ * in-memory H2 DB with the "persistent" profile on a fresh file DB in a temp directory.
+ * The writeBehind param journals unconditional edits and writes them in batches;
+ * updateHot edits a few nodes over and over, as an authoring session does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NodeManagerBenchmark {
+
+    private static final int IMPORT_CHUNK = 1000;
+    private static final int HOT_NODES = 16;
+
+    @Param({"1000", "10000"})
+    private int graphSize;
+
+    @Param({"memory", "persistent"})
+    private String storage;
+
+    @Param({"false", "true"})
+    private boolean writeBehind;
+
+    private ConfigurableApplicationContext context;
+    private Path dataDir;
+    private NodeManager<MultiNode> nodeManager;
+    private List<String> nodeIds;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void startContext() throws IOException {
+        dataDir = Files.createTempDirectory("nodestorage-benchmark");
+        context = new SpringApplicationBuilder(NodeStorageApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run("--grpc.enabled=false",
+                        "--spring.kafka.consumer.auto-startup=false",
+                        "--logging.level.root=WARN",
+                        "--spring.profiles.active=" + ("persistent".equals(storage) ? "persistent" : "default"),
+                        "--storage.data-dir=" + dataDir,
+                        "--storage.write-behind.enabled=" + writeBehind);
+        nodeManager = context.getBean(NodeManager.class);
+        nodeIds = new ArrayList<>(graphSize);
+        String previousChunkEnd = null;
+        for (int start = 0; start < graphSize; start += IMPORT_CHUNK) {
+            int end = Math.min(start + IMPORT_CHUNK, graphSize);
+            List<GraphImportDTO.Node> nodes = new ArrayList<>(end - start);
+            List<GraphImportDTO.Link> links = new ArrayList<>(2 * (end - start));
+            for (int i = start; i < end; i++) {
+                nodes.add(new GraphImportDTO.Node(String.valueOf(i), "Глава " + i, "Текст главы " + i));
+                for (int next = i + 1; next <= i + 2 && next < end; next++) {
+                    links.add(new GraphImportDTO.Link(String.valueOf(i), String.valueOf(next), "Дальше " + next));
+                }
+            }
+            if (previousChunkEnd != null) {
+                links.add(new GraphImportDTO.Link(previousChunkEnd, String.valueOf(start), "Дальше " + start));
+            }
+            var ids = nodeManager.importGraph(new GraphImportDTO(nodes, links));
+            for (int i = start; i < end; i++) {
+                nodeIds.add(ids.get(String.valueOf(i)).toString());
+            }
+            previousChunkEnd = nodeIds.get(end - 1);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() throws IOException {
+        context.close();
+        try (Stream<Path> files = Files.walk(dataDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public MultiNode save() {
+        return nodeManager.save(NodeDTO.of("Новая глава", "Текст новой главы"));
+    }
+
+    @Benchmark
+    public MultiNode update() {
+        return nodeManager.update(NodeDTO.of(randomNodeId(), "Правка", UUID.randomUUID().toString()));
+    }
+
+    @Benchmark
+    public MultiNode updateHot() {
+        String nodeId = nodeIds.get(ThreadLocalRandom.current().nextInt(HOT_NODES));
+        return nodeManager.update(NodeDTO.of(nodeId, "Правка", UUID.randomUUID().toString()));
+    }
+
+    @Benchmark
+    public MultiNode fork() {
+        return nodeManager.fork(randomNodeId(), NodeDTO.of("Ветка", "Текст ветки"), "Свернуть");
+    }
+
+    @Benchmark
+    public Optional<MultiNode> findById() {
+        return nodeManager.findById(randomNodeId());
+    }
+
+    @Benchmark
+    public Object findSnapshotById() {
+        return nodeManager.findSnapshotById(randomNodeId());
+    }
+
+    private String randomNodeId() {
+        return nodeIds.get(ThreadLocalRandom.current().nextInt(nodeIds.size()));
+    }
+}
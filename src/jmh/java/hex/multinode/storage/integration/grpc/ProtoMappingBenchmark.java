@@ -0,0 +1,58 @@
+package hex.multinode.storage.integration.grpc;
+
+import com.example.hex.integration.grpc.FindNodesByTitleResponse;
+import com.example.hex.integration.grpc.NodeProto;
+import hex.multinode.storage.model.dto.NodeView;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Mapping of node views to protobuf messages and the wire encoding of a search page
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProtoMappingBenchmark {
+
+    @Param({"1", "100", "1000"})
+    private int pageSize;
+
+    private NodeView node;
+    private List<NodeView> nodes;
+
+    @Setup(Level.Trial)
+    public void createNodes() {
+        LocalDateTime now = LocalDateTime.now();
+        nodes = IntStream.range(0, pageSize)
+                .mapToObj(i -> new NodeView(UUID.randomUUID(), "Стрекоза и муравей",
+                        "Попрыгунья Стрекоза лето красное пропела; " + i, now, now, 0))
+                .toList();
+        node = nodes.get(0);
+    }
+
+    @Benchmark
+    public NodeProto buildNodeProto() {
+        return NodeEndpointServiceImpl.buildNodeProto(node);
+    }
+
+    @Benchmark
+    public List<NodeProto> buildNodesProto() {
+        return NodeEndpointServiceImpl.buildNodesProto(nodes);
+    }
+
+    @Benchmark
+    public byte[] encodePage() {
+        return FindNodesByTitleResponse.newBuilder()
+                .addAllNode(NodeEndpointServiceImpl.buildNodesProto(nodes))
+                .build()
+                .toByteArray();
+    }
+}
@@ -0,0 +1,52 @@
+package hex.multinode.storage.integration.kafka;
+
+import hex.multinode.storage.model.dto.NodeDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Value deserialization of node edits, configured as in KafkaConsumerConfig
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NodeDTODeserializationBenchmark {
+
+    private static final String TOPIC = "multinode-edit-rq";
+
+    @Param({"64", "1000"})
+    private int textLength;
+
+    private JsonDeserializer<NodeDTO> deserializer;
+    private byte[] message;
+
+    @Setup(Level.Trial)
+    public void createMessage() {
+        deserializer = new JsonDeserializer<>();
+        deserializer.configure(Map.of(
+                JsonDeserializer.TRUSTED_PACKAGES, "hex.multinode.storage.model.dto.",
+                JsonDeserializer.VALUE_DEFAULT_TYPE, NodeDTO.class.getName(),
+                JsonDeserializer.USE_TYPE_INFO_HEADERS, false), false);
+        String json = "{\"id\":\"" + UUID.randomUUID() + "\",\"title\":\"Стрекоза и муравей\",\"contentText\":\""
+                + "а".repeat(textLength) + "\"}";
+        message = json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        deserializer.close();
+    }
+
+    @Benchmark
+    public NodeDTO deserialize() {
+        return deserializer.deserialize(TOPIC, message);
+    }
+}
@@ -0,0 +1,54 @@
+package hex.multinode.storage.model.generator;
+
+import com.fasterxml.uuid.Generators;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Id generation throughput, single-threaded and under contention,
+ * against the previous per-call JUG time-based epoch generator
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UuidGeneratorBenchmark {
+
+    private static final int BLOCK_SIZE = 50;
+
+    @Benchmark
+    public UUID generateUuidV7() {
+        return UUIDV7Generator.generateUuidV7();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public UUID generateUuidV7Contended() {
+        return UUIDV7Generator.generateUuidV7();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BLOCK_SIZE)
+    public void generateBlock(Blackhole blackhole) {
+        UUIDV7Sequence.Block block = UUIDV7Sequence.shared().nextBlock(BLOCK_SIZE);
+        while (block.hasNext()) {
+            blackhole.consume(block.next());
+        }
+    }
+
+    @Benchmark
+    public UUID jugTimeBasedEpoch() {
+        return Generators.timeBasedEpochGenerator().generate();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public UUID jugTimeBasedEpochContended() {
+        return Generators.timeBasedEpochGenerator().generate();
+    }
+}
@@ -0,0 +1,65 @@
+package hex.multinode.storage.service.graph;
+
+import hex.multinode.storage.model.dto.LinkDTO;
+import hex.multinode.storage.model.dto.StoryStatsDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Index lookups and whole-graph analytics over a random story graph:
+ * every node forks to the next one and to a random node, so the graph has cycles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StoryGraphBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int graphSize;
+
+    private StoryGraphIndex index;
+    private GraphSnapshot snapshot;
+    private UUID[] nodeIds;
+
+    @Setup(Level.Trial)
+    public void buildGraph() {
+        Random random = new Random(42);
+        nodeIds = IntStream.range(0, graphSize).mapToObj(i -> new UUID(0, i)).toArray(UUID[]::new);
+        LinkDTO[] links = new LinkDTO[2 * graphSize - 1];
+        int count = 0;
+        for (int i = 0; i < graphSize; i++) {
+            if (i + 1 < graphSize) {
+                links[count++] = new LinkDTO(new UUID(1, count), nodeIds[i], nodeIds[i + 1], "Дальше");
+            }
+            links[count++] = new LinkDTO(new UUID(1, count), nodeIds[i], nodeIds[random.nextInt(graphSize)], "Наугад");
+        }
+        index = new StoryGraphIndex(null, null, null, null);
+        index.load(Arrays.stream(nodeIds), Arrays.stream(links));
+        snapshot = index.snapshot();
+    }
+
+    @Benchmark
+    public List<LinkDTO> forksOf() {
+        return index.forksOf(nodeIds[ThreadLocalRandom.current().nextInt(graphSize)]);
+    }
+
+    @Benchmark
+    public GraphSnapshot snapshot() {
+        return index.snapshot();
+    }
+
+    @Benchmark
+    public StoryStatsDTO analyze() {
+        return StoryGraphAnalytics.analyze(snapshot, 0);
+    }
+}
@@ -0,0 +1,82 @@
+package hex.multinode.storage.service.search;
+
+import hex.multinode.storage.model.dto.NodeView;
+import hex.multinode.storage.model.dto.TextSearchHit;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Ranked first-page search over a synthetic corpus: node texts are random
+ * sequences of a 20k-word vocabulary with Zipf-like frequencies.
+ * SampleTime mode reports the p99 the search endpoints are tuned against.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class NodeTextIndexBenchmark {
+
+    private static final int VOCABULARY = 20_000;
+    private static final int WORDS_PER_NODE = 60;
+
+    @Param({"100000", "1000000"})
+    private int corpusSize;
+
+    private NodeTextIndex index;
+    private String[] words;
+
+    @Setup(Level.Trial)
+    public void buildIndex() {
+        words = IntStream.range(0, VOCABULARY).mapToObj(NodeTextIndexBenchmark::word).toArray(String[]::new);
+        Random random = new Random(42);
+        index = new NodeTextIndex(null, null, null, "", Duration.ofHours(1));
+        index.load(IntStream.range(0, corpusSize).mapToObj(i -> {
+            StringBuilder text = new StringBuilder();
+            for (int w = 0; w < WORDS_PER_NODE; w++) {
+                text.append(words[zipf(random)]).append(' ');
+            }
+            return new NodeView(new UUID(0, i), words[zipf(random)], text.toString(), null, null, 0);
+        }));
+    }
+
+    @TearDown(Level.Trial)
+    public void closeIndex() throws IOException {
+        index.close();
+    }
+
+    @Benchmark
+    public List<TextSearchHit> oneWord() {
+        return index.search(words[zipf(ThreadLocalRandom.current())], null, 50);
+    }
+
+    @Benchmark
+    public List<TextSearchHit> twoWords() {
+        Random random = ThreadLocalRandom.current();
+        return index.search(words[zipf(random)] + " " + words[zipf(random)], null, 50);
+    }
+
+    /**
+     * Frequent words cluster at low indexes, roughly 1/rank
+     */
+    private static int zipf(Random random) {
+        return (int) Math.min(VOCABULARY - 1, Math.exp(random.nextDouble() * Math.log(VOCABULARY)) - 1);
+    }
+
+    private static String word(int i) {
+        StringBuilder word = new StringBuilder("слово");
+        for (int n = i; n > 0; n /= 26) {
+            word.append((char) ('а' + n % 26));
+        }
+        return word.toString();
+    }
+}
@@ -7,6 +7,7 @@ import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -14,18 +15,33 @@ import org.springframework.stereotype.Component;
 @Slf4j
 public class LoggingAspect {
 
+    private final RequestLogSampler sampler;
+
+    @Autowired
+    public LoggingAspect(RequestLogSampler sampler) {
+        this.sampler = sampler;
+    }
+
     @Around("@annotation(hex.multinode.storage.aspect.NodeToLog)")
     public MultiNode findNodeLoggingAdvice(ProceedingJoinPoint pjp) throws Throwable {
-        String methodName = pjp.getSignature().getName();
         MultiNode result = (MultiNode) pjp.proceed();
-        log.info(methodName + " node: [id = " + result.getId() + ", title = " + result.getTitle() + "]");
+        if (log.isInfoEnabled()) {
+            String methodName = pjp.getSignature().getName();
+            if (sampler.sampled(methodName)) {
+                log.info("{} node: [id = {}, title = {}]", methodName, result.getId(), result.getTitle());
+            }
+        }
         return result;
     }
 
     @Before("@annotation(hex.multinode.storage.aspect.GrpcRqToLog)")
     public void grpcRqLoggingAdvice(JoinPoint jp) {
-        String methodName = jp.getSignature().getName();
-        log.info(methodName + " gRPC request: [" + jp.getArgs()[0] + "]");
+        if (log.isInfoEnabled()) {
+            String methodName = jp.getSignature().getName();
+            if (sampler.sampled(methodName)) {
+                log.info("{} gRPC request: [{}]", methodName, sampler.summary(jp.getArgs()[0]));
+            }
+        }
     }
 
 }
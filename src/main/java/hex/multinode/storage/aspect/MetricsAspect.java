@@ -0,0 +1,43 @@
+package hex.multinode.storage.aspect;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Latency, throughput and errors of every NodeManager call as the
+ * "nodestorage.manager.calls" timer, tagged by method and exception
+ */
+@Component
+@Aspect
+public class MetricsAspect {
+
+    private final MeterRegistry registry;
+
+    @Autowired
+    public MetricsAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("execution(public * hex.multinode.storage.service.NodeManager+.*(..))")
+    public Object managerMetricsAdvice(ProceedingJoinPoint pjp) throws Throwable {
+        Timer.Sample sample = Timer.start(registry);
+        String exception = "none";
+        try {
+            return pjp.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("nodestorage.manager.calls")
+                    .description("NodeManager calls")
+                    .tag("method", pjp.getSignature().getName())
+                    .tag("exception", exception)
+                    .register(registry));
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package hex.multinode.storage.aspect;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.Map;
+
+/**
+ * Request/response logging settings
+ * @param maxPayloadLength payload summaries are cut to this many characters
+ * @param sampleRate share of calls logged, 0..1
+ * @param sampleRates per-endpoint overrides of sampleRate, by method name
+ */
+@ConfigurationProperties(prefix = "storage.logging")
+public record RequestLogProperties(
+        @DefaultValue("256") int maxPayloadLength,
+        @DefaultValue("1.0") double sampleRate,
+        Map<String, Double> sampleRates) {
+
+    public RequestLogProperties {
+        sampleRates = sampleRates == null ? Map.of() : Map.copyOf(sampleRates);
+    }
+}
@@ -0,0 +1,91 @@
+package hex.multinode.storage.aspect;
+
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.Message;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides which calls get logged and renders their payloads as size-capped summaries:
+ * each value is cut as it is appended, so large payloads cost no more than small ones.
+ * Summaries are formatted lazily, only when the log event is actually built.
+ */
+@Component
+@EnableConfigurationProperties(RequestLogProperties.class)
+public class RequestLogSampler {
+
+    private final RequestLogProperties properties;
+
+    @Autowired
+    public RequestLogSampler(RequestLogProperties properties) {
+        this.properties = properties;
+    }
+
+    public boolean sampled(String endpoint) {
+        double rate = properties.sampleRates().getOrDefault(endpoint, properties.sampleRate());
+        return rate >= 1 || rate > 0 && ThreadLocalRandom.current().nextDouble() < rate;
+    }
+
+    /**
+     * @return object whose toString is the summary: protobuf messages show scalar fields,
+     * sizes of repeated fields and byte sizes of nested messages
+     */
+    public Object summary(Object payload) {
+        return new Summary(payload, properties.maxPayloadLength());
+    }
+
+    private record Summary(Object payload, int maxLength) {
+
+        @Override
+        public String toString() {
+            StringBuilder summary = new StringBuilder();
+            if (payload instanceof Message message) {
+                appendMessage(summary, message);
+            } else {
+                appendValue(summary, payload);
+            }
+            return summary.toString();
+        }
+
+        private void appendMessage(StringBuilder summary, Message message) {
+            summary.append(message.getDescriptorForType().getName()).append('{');
+            String separator = "";
+            for (Map.Entry<Descriptors.FieldDescriptor, Object> field : message.getAllFields().entrySet()) {
+                if (summary.length() >= maxLength) {
+                    summary.append("...");
+                    return;
+                }
+                summary.append(separator).append(field.getKey().getName()).append('=');
+                separator = ", ";
+                Object value = field.getValue();
+                if (field.getKey().isRepeated()) {
+                    summary.append('[').append(((List<?>) value).size()).append(']');
+                } else if (value instanceof Message nested) {
+                    summary.append(nested.getDescriptorForType().getName())
+                            .append('(').append(nested.getSerializedSize()).append(" bytes)");
+                } else {
+                    appendValue(summary, value);
+                }
+            }
+            summary.append('}');
+        }
+
+        /**
+         * Copies only what fits into maxLength, a cut value ends with its full length
+         */
+        private void appendValue(StringBuilder summary, Object value) {
+            String text = String.valueOf(value);
+            int room = Math.max(maxLength - summary.length(), 0);
+            if (text.length() <= room) {
+                summary.append(text);
+            } else {
+                summary.append(text, 0, room).append("...(").append(text.length()).append(" chars)");
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package hex.multinode.storage.config;
+
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.TransactionStatus;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Lets at most maxTransactions threads run transactions at the same time, so callers beyond
+ * the connection pool wait here without a deadline instead of timing out in the pool.
+ * A thread takes one permit for its outermost transaction; nested ones run on it.
+ */
+public class BoundedTransactionManager implements PlatformTransactionManager {
+
+    private final PlatformTransactionManager delegate;
+    private final Semaphore permits;
+    /**
+     * Outermost transaction of the thread, holding its permit
+     */
+    private final ThreadLocal<TransactionStatus> owner = new ThreadLocal<>();
+
+    public BoundedTransactionManager(PlatformTransactionManager delegate, int maxTransactions) {
+        if (maxTransactions < 1) {
+            throw new IllegalArgumentException("Max transactions must be positive: " + maxTransactions);
+        }
+        this.delegate = delegate;
+        this.permits = new Semaphore(maxTransactions);
+    }
+
+    @Override
+    public TransactionStatus getTransaction(TransactionDefinition definition) throws TransactionException {
+        if (owner.get() != null) {
+            return delegate.getTransaction(definition);
+        }
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CannotCreateTransactionException("Interrupted while waiting for a transaction permit", e);
+        }
+        try {
+            TransactionStatus status = delegate.getTransaction(definition);
+            owner.set(status);
+            return status;
+        } catch (RuntimeException | Error e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public void commit(TransactionStatus status) throws TransactionException {
+        try {
+            delegate.commit(status);
+        } finally {
+            released(status);
+        }
+    }
+
+    @Override
+    public void rollback(TransactionStatus status) throws TransactionException {
+        try {
+            delegate.rollback(status);
+        } finally {
+            released(status);
+        }
+    }
+
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    private void released(TransactionStatus status) {
+        if (owner.get() == status) {
+            owner.remove();
+            permits.release();
+        }
+    }
+}
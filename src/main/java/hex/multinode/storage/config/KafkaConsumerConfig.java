@@ -10,7 +10,9 @@ import org.springframework.kafka.config.KafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
+import hex.multinode.storage.integration.kafka.KeyedWorkerPool;
 import hex.multinode.storage.model.dto.NodeDTO;
 
 import java.util.HashMap;
@@ -28,11 +30,22 @@ public class KafkaConsumerConfig {
     @Value("${spring.kafka.consumer.value.default.type}")
     private String valueDefaultType;
 
+    @Value("${spring.kafka.consumer.batch.max-records:500}")
+    private int batchMaxRecords;
+
+    @Value("${spring.kafka.consumer.concurrency:1}")
+    private int concurrency;
+
+    @Value("${spring.kafka.consumer.workers:0}")
+    private int workers;
+
     public Map<String, Object> consumerConfig() {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServer);
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, batchMaxRecords);
         props.put(JsonDeserializer.TRUSTED_PACKAGES, trustedPackages);
         props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, valueDefaultType);
         props.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
@@ -44,11 +57,28 @@ public class KafkaConsumerConfig {
         return new DefaultKafkaConsumerFactory<>(consumerConfig());
     }
 
+    /**
+     * Batch mode: the listener receives the whole poll at once and offsets
+     * are committed only after the listener returns, i.e. after the bulk update
+     * transaction has been committed.
+     */
     @Bean
     public KafkaListenerContainerFactory<ConcurrentMessageListenerContainer<String, NodeDTO>> kafkaNodeConsumerFactory(
             ConsumerFactory<String, NodeDTO> consumerFactory) {
         var factory = new ConcurrentKafkaListenerContainerFactory<String, NodeDTO>();
         factory.setConsumerFactory(consumerFactory);
+        factory.setConcurrency(concurrency);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
         return factory;
     }
+
+    /**
+     * Optional pool behind the consumers: edits of different nodes are applied
+     * in parallel, edits of the same node stay on one worker and keep their order
+     */
+    @Bean(destroyMethod = "close")
+    public KeyedWorkerPool nodeEditWorkerPool() {
+        return new KeyedWorkerPool(workers);
+    }
 }
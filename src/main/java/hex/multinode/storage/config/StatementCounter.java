@@ -0,0 +1,56 @@
+package hex.multinode.storage.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Counts SQL statements prepared by Hibernate on the current thread, so that
+ * request handlers can publish "nodestorage.request.statements" per endpoint
+ */
+@Component
+public class StatementCounter implements StatementInspector, HibernatePropertiesCustomizer {
+
+    private static final ThreadLocal<long[]> STATEMENTS = ThreadLocal.withInitial(() -> new long[1]);
+
+    private final MeterRegistry registry;
+
+    @Autowired
+    public StatementCounter(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.get()[0]++;
+        return sql;
+    }
+
+    /**
+     * @return statements prepared by this thread so far; the difference of two marks
+     * is the number of statements in between
+     */
+    public long mark() {
+        return STATEMENTS.get()[0];
+    }
+
+    public void record(String transport, String endpoint, long statements) {
+        DistributionSummary.builder("nodestorage.request.statements")
+                .description("SQL statements executed per request")
+                .tag("transport", transport)
+                .tag("endpoint", endpoint)
+                .register(registry)
+                .record(statements);
+    }
+}
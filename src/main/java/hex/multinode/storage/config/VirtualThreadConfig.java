@@ -0,0 +1,68 @@
+package hex.multinode.storage.config;
+
+import io.grpc.ServerBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
+import org.lognet.springboot.grpc.GRpcServerBuilderConfigurer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Virtual-thread request handling for gRPC and Tomcat (requires Java 21, see the java21 profile).
+ * Both servers share one executor with its own concurrency limit, set well above the Hikari pool size:
+ * cache, graph index and search reads and slow-client I/O never need a connection.
+ * Transactions are limited separately to the pool size, so DB work beyond the pool queues
+ * on a semaphore instead of failing with Hikari's connection-timeout.
+ */
+@Configuration
+@ConditionalOnProperty(name = "storage.virtual-threads.enabled", havingValue = "true")
+@Slf4j
+public class VirtualThreadConfig {
+
+    @Value("${storage.virtual-threads.max-concurrency:1000}")
+    private int maxConcurrency;
+
+    @Bean
+    public BoundedExecutor requestExecutor() {
+        if (Runtime.version().feature() < 21) {
+            throw new IllegalStateException("Virtual threads require Java 21, running on " + Runtime.version());
+        }
+        log.info("Handling gRPC and HTTP requests on virtual threads, max concurrency {}", maxConcurrency);
+        return new BoundedExecutor(new VirtualThreadTaskExecutor("request-"), maxConcurrency);
+    }
+
+    @Bean
+    public static BeanPostProcessor boundedTransactions(
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int maxTransactions) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof PlatformTransactionManager transactionManager
+                        && !(bean instanceof BoundedTransactionManager)
+                        ? new BoundedTransactionManager(transactionManager, maxTransactions)
+                        : bean;
+            }
+        };
+    }
+
+    @Bean
+    public GRpcServerBuilderConfigurer grpcVirtualThreads(BoundedExecutor requestExecutor) {
+        return new GRpcServerBuilderConfigurer() {
+            @Override
+            public void configure(ServerBuilder<?> serverBuilder) {
+                serverBuilder.executor(requestExecutor);
+            }
+        };
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> tomcatVirtualThreads(BoundedExecutor requestExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(requestExecutor);
+    }
+}
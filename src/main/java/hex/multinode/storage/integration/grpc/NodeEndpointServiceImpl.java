@@ -1,26 +1,47 @@
 package hex.multinode.storage.integration.grpc;
 
 import com.example.hex.integration.grpc.*;
+import com.google.protobuf.FieldMask;
 import com.google.rpc.Code;
 import com.google.rpc.Status;
 import hex.multinode.storage.aspect.GrpcRqToLog;
 import hex.multinode.storage.model.data.MultiNode;
+import hex.multinode.storage.model.dto.GraphImportDTO;
+import hex.multinode.storage.model.dto.LinkDTO;
 import hex.multinode.storage.model.dto.NodeDTO;
+import hex.multinode.storage.model.dto.NodeField;
+import hex.multinode.storage.model.dto.NodeFields;
+import hex.multinode.storage.model.dto.NodeSnapshot;
+import hex.multinode.storage.model.dto.NodeView;
+import hex.multinode.storage.model.dto.StoryPathDTO;
+import hex.multinode.storage.model.dto.TextSearchHit;
+import hex.multinode.storage.model.dto.TextSearchPage;
+import hex.multinode.storage.model.dto.TitleMatch;
+import hex.multinode.storage.model.dto.TitlePage;
 import hex.multinode.storage.service.NodeManager;
+import io.grpc.StatusRuntimeException;
 import io.grpc.protobuf.StatusProto;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import lombok.extern.slf4j.Slf4j;
 import org.lognet.springboot.grpc.GRpcService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.UUID;
 import java.util.function.BiConsumer;
 
 @GRpcService
 @Slf4j
 public class NodeEndpointServiceImpl extends NodeEndpointServiceGrpc.NodeEndpointServiceImplBase {
 
+    private static final int DEFAULT_CHUNK_SIZE = 100;
+    private static final int DEFAULT_SEARCH_PAGE_SIZE = 50;
+
     private final NodeManager<MultiNode> nodeManager;
 
     @Autowired
@@ -34,7 +55,21 @@ public class NodeEndpointServiceImpl extends NodeEndpointServiceGrpc.NodeEndpoin
         BiConsumer<CreateNodeRequest, StreamObserver<CreateNodeResponse>> consumer = (rq, rsObserver) -> {
             MultiNode node = nodeManager.save(NodeDTO.of(rq.getTitle(), rq.getText()));
             CreateNodeResponse response = CreateNodeResponse.newBuilder()
-                    .setNode(buildNodeProto(node))
+                    .setNode(buildNodeProto(NodeView.of(node)))
+                    .build();
+            sendResponse(response, rsObserver);
+        };
+        wrapExceptions(consumer, request, responseObserver);
+    }
+
+    @Override
+    @GrpcRqToLog
+    public void updateNode(UpdateNodeRequest request, StreamObserver<UpdateNodeResponse> responseObserver) {
+        BiConsumer<UpdateNodeRequest, StreamObserver<UpdateNodeResponse>> consumer = (rq, rsObserver) -> {
+            Long expectedVersion = rq.hasExpectedVersion() ? rq.getExpectedVersion().getValue() : null;
+            MultiNode node = nodeManager.update(NodeDTO.of(rq.getId(), rq.getTitle(), rq.getText(), expectedVersion));
+            UpdateNodeResponse response = UpdateNodeResponse.newBuilder()
+                    .setNode(buildNodeProto(NodeView.of(node)))
                     .build();
             sendResponse(response, rsObserver);
         };
@@ -47,7 +82,7 @@ public class NodeEndpointServiceImpl extends NodeEndpointServiceGrpc.NodeEndpoin
         BiConsumer<DeleteNodeByIdRequest, StreamObserver<DeleteNodeByIdResponse>> consumer = (rq, rsObserver) -> {
             MultiNode node = nodeManager.deleteById(rq.getId());
             DeleteNodeByIdResponse response = DeleteNodeByIdResponse.newBuilder()
-                    .setNode(buildNodeProto(node))
+                    .setNode(buildNodeProto(NodeView.of(node)))
                     .build();
             sendResponse(response, rsObserver);
         };
@@ -58,25 +93,96 @@ public class NodeEndpointServiceImpl extends NodeEndpointServiceGrpc.NodeEndpoin
     @GrpcRqToLog
     public void findNodesByTitle(FindNodesByTitleRequest request, StreamObserver<FindNodesByTitleResponse> responseObserver) {
         BiConsumer<FindNodesByTitleRequest, StreamObserver<FindNodesByTitleResponse>> consumer = (rq, rsObserver) -> {
-            List<MultiNode> nodes = nodeManager.findNodesByTitle(rq.getTitle());
-            FindNodesByTitleResponse response = FindNodesByTitleResponse.newBuilder()
-                    .addAllNode(buildNodesProto(nodes))
-                    .build();
+            FindNodesByTitleResponse response;
+            NodeFields fields = fieldsOf(rq.getFieldMask());
+            if (rq.getPageSize() != 0) {
+                List<NodeView> nodes = nodeManager.findNodesByTitle(rq.getTitle(), rq.getPageToken(), rq.getPageSize(),
+                        fields);
+                response = buildNodesPage(nodes, rq.getPageSize(), fields);
+            } else {
+                List<NodeView> nodes = nodeManager.findViewsByTitle(rq.getTitle(), fields);
+                response = FindNodesByTitleResponse.newBuilder()
+                        .addAllNode(buildNodesProto(nodes, fields))
+                        .build();
+            }
             sendResponse(response, rsObserver);
         };
         wrapExceptions(consumer, request, responseObserver);
     }
 
+    @Override
+    @GrpcRqToLog
+    public void searchNodesByTitle(SearchNodesByTitleRequest request, StreamObserver<FindNodesByTitleResponse> responseObserver) {
+        BiConsumer<SearchNodesByTitleRequest, StreamObserver<FindNodesByTitleResponse>> consumer = (rq, rsObserver) -> {
+            int pageSize = rq.getPageSize() > 0 ? rq.getPageSize() : DEFAULT_SEARCH_PAGE_SIZE;
+            NodeFields fields = fieldsOf(rq.getFieldMask());
+            TitlePage page = nodeManager.searchByTitle(rq.getTitle(), TitleMatch.valueOf(rq.getMatch().name()),
+                    rq.getPageToken(), pageSize, fields);
+            var builder = FindNodesByTitleResponse.newBuilder()
+                    .addAllNode(buildNodesProto(page.nodes(), fields));
+            if (page.nextPageToken() != null) {
+                builder.setNextPageToken(page.nextPageToken());
+            }
+            sendResponse(builder.build(), rsObserver);
+        };
+        wrapExceptions(consumer, request, responseObserver);
+    }
+
+    @Override
+    @GrpcRqToLog
+    public void searchText(SearchTextRequest request, StreamObserver<SearchTextResponse> responseObserver) {
+        BiConsumer<SearchTextRequest, StreamObserver<SearchTextResponse>> consumer = (rq, rsObserver) -> {
+            int pageSize = rq.getPageSize() > 0 ? rq.getPageSize() : DEFAULT_SEARCH_PAGE_SIZE;
+            TextSearchPage page = nodeManager.search(rq.getQuery(), rq.getPageToken(), pageSize);
+            var builder = SearchTextResponse.newBuilder();
+            for (TextSearchHit hit : page.hits()) {
+                builder.addHit(SearchHitProto.newBuilder()
+                        .setId(hit.id().toString())
+                        .setTitle(hit.title())
+                        .setScore(hit.score()));
+            }
+            if (page.nextPageToken() != null) {
+                builder.setNextPageToken(page.nextPageToken());
+            }
+            sendResponse(builder.build(), rsObserver);
+        };
+        wrapExceptions(consumer, request, responseObserver);
+    }
+
+    @Override
+    @GrpcRqToLog
+    public void streamNodesByTitle(FindNodesByTitleRequest request, StreamObserver<FindNodesByTitleResponse> responseObserver) {
+        var serverObserver = (ServerCallStreamObserver<FindNodesByTitleResponse>) responseObserver;
+        int chunkSize = request.getPageSize() != 0 ? request.getPageSize() : DEFAULT_CHUNK_SIZE;
+        NodeFields fields;
+        try {
+            if (chunkSize < 1 || chunkSize > NodeManager.MAX_PAGE_SIZE) {
+                throw new IllegalArgumentException("Page size must be 1.." + NodeManager.MAX_PAGE_SIZE + ": " + chunkSize);
+            }
+            fields = fieldsOf(request.getFieldMask());
+        } catch (IllegalArgumentException e) {
+            responseObserver.onError(toStatusException(e));
+            return;
+        }
+        var stream = new NodesByTitleStream(request.getTitle(), request.getPageToken(), chunkSize, fields,
+                serverObserver);
+        serverObserver.setOnCancelHandler(stream::cancel);
+        serverObserver.setOnReadyHandler(stream);
+    }
+
     @Override
     @GrpcRqToLog
     public void findNodeById(FindNodeByIdRequest request, StreamObserver<FindNodeByIdResponse> responseObserver) {
         BiConsumer<FindNodeByIdRequest, StreamObserver<FindNodeByIdResponse>> consumer = (rq, rsObserver) -> {
-            nodeManager.findById(rq.getId())
+            NodeFields fields = fieldsOf(rq.getFieldMask());
+            nodeManager.findSnapshotById(rq.getId())
                     .ifPresentOrElse(node -> {
-                                FindNodeByIdResponse response = FindNodeByIdResponse.newBuilder()
-                                        .setNode(buildNodeProto(node))
-                                        .build();
-                                sendResponse(response, rsObserver);
+                                var response = FindNodeByIdResponse.newBuilder()
+                                        .setNode(buildNodeProto(node, fields));
+                                if (fields.has(NodeField.FORKS)) {
+                                    response.addAllFork(buildLinksProto(node.forks()));
+                                }
+                                sendResponse(response.build(), rsObserver);
                             },
                             () -> {
                                 Status status = Status.newBuilder()
@@ -88,41 +194,284 @@ public class NodeEndpointServiceImpl extends NodeEndpointServiceGrpc.NodeEndpoin
         wrapExceptions(consumer, request, responseObserver);
     }
 
+    @Override
+    @GrpcRqToLog
+    public void findForks(FindForksRequest request, StreamObserver<FindForksResponse> responseObserver) {
+        BiConsumer<FindForksRequest, StreamObserver<FindForksResponse>> consumer = (rq, rsObserver) -> {
+            List<LinkDTO> links = nodeManager.findForks(rq.getId());
+            FindForksResponse response = FindForksResponse.newBuilder()
+                    .addAllLink(buildLinksProto(links))
+                    .build();
+            sendResponse(response, rsObserver);
+        };
+        wrapExceptions(consumer, request, responseObserver);
+    }
+
+    @Override
+    @GrpcRqToLog
+    public void walkPath(WalkPathRequest request, StreamObserver<WalkPathResponse> responseObserver) {
+        BiConsumer<WalkPathRequest, StreamObserver<WalkPathResponse>> consumer = (rq, rsObserver) -> {
+            StoryPathDTO path = nodeManager.walk(rq.getStartId(), rq.getStepList());
+            WalkPathResponse response = WalkPathResponse.newBuilder()
+                    .addAllNode(path.nodes().stream().map(node -> buildNodeProto(node, NodeFields.ALL)).toList())
+                    .addAllChoice(buildLinksProto(path.choices()))
+                    .build();
+            sendResponse(response, rsObserver);
+        };
+        wrapExceptions(consumer, request, responseObserver);
+    }
+
+    @Override
+    public StreamObserver<ReadSessionRequest> readSession(StreamObserver<ReadSessionResponse> responseObserver) {
+        return new ReadSession(responseObserver);
+    }
+
+    @Override
+    public StreamObserver<BulkImportRequest> bulkImport(StreamObserver<BulkImportResponse> responseObserver) {
+        List<GraphImportDTO.Node> nodes = new ArrayList<>();
+        List<GraphImportDTO.Link> links = new ArrayList<>();
+        return new StreamObserver<>() {
+            @Override
+            public void onNext(BulkImportRequest request) {
+                request.getNodeList().forEach(node ->
+                        nodes.add(new GraphImportDTO.Node(node.getTempId(), node.getTitle(), node.getText())));
+                request.getLinkList().forEach(link ->
+                        links.add(new GraphImportDTO.Link(link.getFrom(), link.getTo(), link.getChoiceText())));
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                log.warn("bulkImport aborted by client: {}", t.getMessage());
+            }
+
+            @Override
+            public void onCompleted() {
+                log.info("bulkImport gRPC request: [{} nodes, {} links]", nodes.size(), links.size());
+                BiConsumer<GraphImportDTO, StreamObserver<BulkImportResponse>> consumer = (rq, rsObserver) -> {
+                    Map<String, UUID> ids = nodeManager.importGraph(rq);
+                    var response = BulkImportResponse.newBuilder();
+                    ids.forEach((tempId, id) -> response.putId(tempId, id.toString()));
+                    sendResponse(response.build(), rsObserver);
+                };
+                wrapExceptions(consumer, new GraphImportDTO(nodes, links), responseObserver);
+            }
+        };
+    }
+
     private <Rq, Rs> void wrapExceptions(BiConsumer<Rq, StreamObserver<Rs>> consumer, Rq request, StreamObserver<Rs> responseObserver) {
         try {
             consumer.accept(request, responseObserver);
-        } catch (NoSuchElementException e) {
-            Status status = Status.newBuilder()
-                    .setCode(Code.NOT_FOUND_VALUE)
-                    .setMessage(e.getMessage())
-                    .build();
-            responseObserver.onError(StatusProto.toStatusRuntimeException(status));
         } catch (Exception e) {
-            Status status = Status.newBuilder()
-                    .setCode(Code.INTERNAL_VALUE)
-                    .setMessage(e.getMessage())
-                    .build();
-            responseObserver.onError(StatusProto.toStatusRuntimeException(status));
+            responseObserver.onError(toStatusException(e));
         }
 
         //TODO global exception handler
     }
 
+    private static StatusRuntimeException toStatusException(Exception e) {
+        int code;
+        if (e instanceof NoSuchElementException) {
+            code = Code.NOT_FOUND_VALUE;
+        } else if (e instanceof IllegalArgumentException) {
+            code = Code.INVALID_ARGUMENT_VALUE;
+        } else if (e instanceof OptimisticLockingFailureException) {
+            code = Code.ABORTED_VALUE;
+        } else {
+            code = Code.INTERNAL_VALUE;
+        }
+        Status status = Status.newBuilder()
+                .setCode(code)
+                .setMessage(String.valueOf(e.getMessage()))
+                .build();
+        return StatusProto.toStatusRuntimeException(status);
+    }
+
     private <Rs> void sendResponse(Rs response, StreamObserver<Rs> responseObserver) {
-        log.info("gRPC response: " + response);
         responseObserver.onNext(response);
         responseObserver.onCompleted();
     }
 
-    private static NodeProto buildNodeProto(MultiNode node) {
-        return NodeProto.newBuilder()
-                .setId(node.getId().toString())
-                .setTitle(node.getTitle())
-                .setText(node.getContent().getText())
+    private static FindNodesByTitleResponse buildNodesPage(List<NodeView> nodes, int pageSize, NodeFields fields) {
+        var builder = FindNodesByTitleResponse.newBuilder()
+                .addAllNode(buildNodesProto(nodes, fields));
+        if (nodes.size() == pageSize) {
+            builder.setNextPageToken(nodes.get(nodes.size() - 1).id().toString());
+        }
+        return builder.build();
+    }
+
+    static NodeProto buildNodeProto(NodeView node) {
+        return buildNodeProto(node, NodeFields.ALL);
+    }
+
+    /**
+     * NodeProto carries no dates, so masks asking for them are rejected instead of answered without them
+     */
+    private static NodeFields fieldsOf(FieldMask fieldMask) {
+        NodeFields fields = NodeFields.of(fieldMask.getPathsList());
+        if (fieldMask.getPathsCount() > 0 && (fields.has(NodeField.DATE_CREATED) || fields.has(NodeField.DATE_UPDATED))) {
+            throw new IllegalArgumentException("Node dates are not available over gRPC: " + fieldMask.getPathsList());
+        }
+        return fields;
+    }
+
+    private static NodeProto buildNodeProto(NodeView node, NodeFields fields) {
+        return buildNodeProto(node.id(), node.title(), node.text(), node.version(), fields);
+    }
+
+    private static NodeProto buildNodeProto(NodeSnapshot node, NodeFields fields) {
+        return buildNodeProto(node.id(), node.title(), node.text(), node.version(), fields);
+    }
+
+    private static NodeProto buildNodeProto(UUID id, String title, String text, long version, NodeFields fields) {
+        NodeProto.Builder builder = NodeProto.newBuilder();
+        if (fields.has(NodeField.ID)) {
+            builder.setId(id.toString());
+        }
+        if (fields.has(NodeField.TITLE)) {
+            builder.setTitle(title);
+        }
+        if (fields.has(NodeField.VERSION)) {
+            builder.setVersion(version);
+        }
+        if (text != null && fields.has(NodeField.TEXT)) {
+            builder.setText(text);
+        }
+        return builder.build();
+    }
+
+    static List<NodeProto> buildNodesProto(List<NodeView> nodes) {
+        return buildNodesProto(nodes, NodeFields.ALL);
+    }
+
+    private static List<NodeProto> buildNodesProto(List<NodeView> nodes, NodeFields fields) {
+        return nodes.stream().map(node -> buildNodeProto(node, fields)).toList();
+    }
+
+    private static LinkProto buildLinkProto(LinkDTO link) {
+        return LinkProto.newBuilder()
+                .setId(link.id().toString())
+                .setParentNodeId(link.parentNodeId().toString())
+                .setChildNodeId(link.childNodeId().toString())
+                .setChoiceText(link.choiceText())
                 .build();
     }
 
-    private static List<NodeProto> buildNodesProto(List<MultiNode> nodes) {
-        return nodes.stream().map(NodeEndpointServiceImpl::buildNodeProto).toList();
+    private static List<LinkProto> buildLinksProto(List<LinkDTO> links) {
+        return links.stream().map(NodeEndpointServiceImpl::buildLinkProto).toList();
+    }
+
+    /**
+     * Reader position in the story. Requests of one call arrive one at a time; the node manager
+     * prefetches the most followed children of every node reached, so the next step is served from memory.
+     */
+    private final class ReadSession implements StreamObserver<ReadSessionRequest> {
+        private final StreamObserver<ReadSessionResponse> observer;
+        private String currentId;
+        private int steps;
+        private boolean done;
+
+        private ReadSession(StreamObserver<ReadSessionResponse> observer) {
+            this.observer = observer;
+        }
+
+        @Override
+        public void onNext(ReadSessionRequest request) {
+            if (done) {
+                return;
+            }
+            try {
+                var response = ReadSessionResponse.newBuilder();
+                NodeSnapshot node;
+                switch (request.getActionCase()) {
+                    case START_ID -> node = nodeManager.findSnapshotById(request.getStartId())
+                            .orElseThrow(() -> new NoSuchElementException("Node not found: " + request.getStartId()));
+                    case STEP -> {
+                        if (currentId == null) {
+                            throw new IllegalArgumentException("Session is not started");
+                        }
+                        StoryPathDTO path = nodeManager.walk(currentId, List.of(request.getStep()));
+                        node = path.nodes().get(1);
+                        response.setChoice(buildLinkProto(path.choices().get(0)));
+                        steps++;
+                    }
+                    default -> throw new IllegalArgumentException("Neither start_id nor step is set");
+                }
+                currentId = node.id().toString();
+                response.setNode(buildNodeProto(node, NodeFields.ALL))
+                        .addAllFork(buildLinksProto(node.forks()));
+                if (request.getPrefetch() > 0) {
+                    nodeManager.findForkSnapshots(currentId, request.getPrefetch())
+                            .forEach(next -> response.addNext(buildNodeProto(next, NodeFields.ALL)));
+                }
+                observer.onNext(response.build());
+            } catch (Exception e) {
+                done = true;
+                observer.onError(toStatusException(e));
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            done = true;
+            log.debug("readSession closed by client after {} steps: {}", steps, t.getMessage());
+        }
+
+        @Override
+        public void onCompleted() {
+            if (!done) {
+                done = true;
+                observer.onCompleted();
+            }
+            log.debug("readSession completed after {} steps", steps);
+        }
+    }
+
+    /**
+     * Sends pages of nodes while the transport is ready, resuming on the next onReady
+     */
+    private final class NodesByTitleStream implements Runnable {
+        private final String title;
+        private final int chunkSize;
+        private final NodeFields fields;
+        private final ServerCallStreamObserver<FindNodesByTitleResponse> observer;
+        private String lastId;
+        private volatile boolean done;
+
+        private NodesByTitleStream(String title, String pageToken, int chunkSize, NodeFields fields,
+                                   ServerCallStreamObserver<FindNodesByTitleResponse> observer) {
+            this.title = title;
+            this.lastId = pageToken;
+            this.chunkSize = chunkSize;
+            this.fields = fields;
+            this.observer = observer;
+        }
+
+        @Override
+        public synchronized void run() {
+            try {
+                while (!done && observer.isReady()) {
+                    List<NodeView> nodes = nodeManager.findNodesByTitle(title, lastId, chunkSize, fields);
+                    FindNodesByTitleResponse page = buildNodesPage(nodes, chunkSize, fields);
+                    if (nodes.size() < chunkSize) {
+                        done = true;
+                        if (!nodes.isEmpty()) {
+                            observer.onNext(page);
+                        }
+                        observer.onCompleted();
+                    } else {
+                        lastId = page.getNextPageToken();
+                        observer.onNext(page);
+                    }
+                }
+            } catch (Exception e) {
+                done = true;
+                observer.onError(toStatusException(e));
+            }
+        }
+
+        private void cancel() {
+            done = true;
+        }
     }
 }
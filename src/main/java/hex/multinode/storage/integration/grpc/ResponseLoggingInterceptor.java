@@ -0,0 +1,41 @@
+package hex.multinode.storage.integration.grpc;
+
+import hex.multinode.storage.aspect.RequestLogSampler;
+import io.grpc.ForwardingServerCall;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import lombok.extern.slf4j.Slf4j;
+import org.lognet.springboot.grpc.GRpcGlobalInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Logs sampled summaries of outgoing messages, streamed ones included
+ */
+@GRpcGlobalInterceptor
+@Slf4j
+public class ResponseLoggingInterceptor implements ServerInterceptor {
+
+    private final RequestLogSampler sampler;
+
+    @Autowired
+    public ResponseLoggingInterceptor(RequestLogSampler sampler) {
+        this.sampler = sampler;
+    }
+
+    @Override
+    public <Rq, Rs> ServerCall.Listener<Rq> interceptCall(ServerCall<Rq, Rs> call, Metadata headers,
+                                                          ServerCallHandler<Rq, Rs> next) {
+        String endpoint = call.getMethodDescriptor().getBareMethodName();
+        return next.startCall(new ForwardingServerCall.SimpleForwardingServerCall<>(call) {
+            @Override
+            public void sendMessage(Rs message) {
+                if (log.isInfoEnabled() && sampler.sampled(endpoint)) {
+                    log.info("{} gRPC response: [{}]", endpoint, sampler.summary(message));
+                }
+                super.sendMessage(message);
+            }
+        }, headers);
+    }
+}
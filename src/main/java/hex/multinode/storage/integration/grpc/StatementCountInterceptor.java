@@ -0,0 +1,76 @@
+package hex.multinode.storage.integration.grpc;
+
+import hex.multinode.storage.config.StatementCounter;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import org.lognet.springboot.grpc.GRpcGlobalInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * SQL statements per gRPC method, summed over the handler callbacks of the call;
+ * latency and status codes come from the starter's grpc.server.calls timer
+ */
+@GRpcGlobalInterceptor
+public class StatementCountInterceptor implements ServerInterceptor {
+
+    private final StatementCounter statementCounter;
+
+    @Autowired
+    public StatementCountInterceptor(StatementCounter statementCounter) {
+        this.statementCounter = statementCounter;
+    }
+
+    @Override
+    public <Rq, Rs> ServerCall.Listener<Rq> interceptCall(ServerCall<Rq, Rs> call, Metadata headers,
+                                                          ServerCallHandler<Rq, Rs> next) {
+        String endpoint = call.getMethodDescriptor().getBareMethodName();
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(next.startCall(call, headers)) {
+            private long statements;
+
+            @Override
+            public void onMessage(Rq message) {
+                long mark = statementCounter.mark();
+                try {
+                    super.onMessage(message);
+                } finally {
+                    statements += statementCounter.mark() - mark;
+                }
+            }
+
+            @Override
+            public void onHalfClose() {
+                long mark = statementCounter.mark();
+                try {
+                    super.onHalfClose();
+                } finally {
+                    statements += statementCounter.mark() - mark;
+                }
+            }
+
+            @Override
+            public void onReady() {
+                long mark = statementCounter.mark();
+                try {
+                    super.onReady();
+                } finally {
+                    statements += statementCounter.mark() - mark;
+                }
+            }
+
+            @Override
+            public void onCancel() {
+                super.onCancel();
+                statementCounter.record("grpc", endpoint, statements);
+            }
+
+            @Override
+            public void onComplete() {
+                super.onComplete();
+                statementCounter.record("grpc", endpoint, statements);
+            }
+        };
+    }
+}
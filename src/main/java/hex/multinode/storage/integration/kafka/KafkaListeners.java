@@ -4,29 +4,208 @@ import hex.multinode.storage.model.data.MultiNode;
 import hex.multinode.storage.model.dto.NodeDTO;
 
 import hex.multinode.storage.service.NodeManager;
+import hex.multinode.storage.service.writebehind.NodeEditBuffer;
 import lombok.extern.log4j.Log4j2;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
 @Component
 @Log4j2
 public class KafkaListeners {
 
     private final NodeManager<MultiNode> nodeManager;
+    private final KeyedWorkerPool workerPool;
+    private final NodeEditConsumerMetrics metrics;
+    private final NodeEditBuffer editBuffer;
+    private final int retryAttempts;
+    private final Duration retryBackoff;
 
     @Autowired
-    public KafkaListeners(NodeManager nodeManager) {
+    public KafkaListeners(NodeManager nodeManager,
+                          KeyedWorkerPool nodeEditWorkerPool,
+                          NodeEditConsumerMetrics metrics,
+                          NodeEditBuffer editBuffer,
+                          @Value("${spring.kafka.consumer.retry.max-attempts:3}") int retryAttempts,
+                          @Value("${spring.kafka.consumer.retry.backoff:50ms}") Duration retryBackoff) {
         this.nodeManager = nodeManager;
+        this.workerPool = nodeEditWorkerPool;
+        this.metrics = metrics;
+        this.editBuffer = editBuffer;
+        this.retryAttempts = retryAttempts;
+        this.retryBackoff = retryBackoff;
     }
 
+    /**
+     * Applies a poll of edits coalesced per node. With spring.kafka.consumer.workers=0 (default)
+     * the whole poll is one transaction; with workers each worker chunk is its own transaction,
+     * so a failed poll may leave the chunks of other workers committed. Redelivery of the poll
+     * reapplies those edits, which is harmless for unconditional edits and skips versioned ones as stale.
+     */
     @KafkaListener(
             topics = "${spring.kafka.consumer.topic}",
             groupId = "${spring.kafka.consumer.group}",
-            containerFactory = "kafkaNodeConsumerFactory"
+            containerFactory = "kafkaNodeConsumerFactory",
+            autoStartup = "${spring.kafka.consumer.auto-startup:true}"
     )
-    void onMessageUpdate(NodeDTO data) {
-        log.debug("KafkaListeners received: " + data);
-        nodeManager.update(data);
+    void onMessageUpdate(List<ConsumerRecord<String, NodeDTO>> records, Consumer<?, ?> consumer) {
+        log.debug("KafkaListeners received {} edits", records.size());
+        long start = System.nanoTime();
+        Set<TopicPartition> partitions = new LinkedHashSet<>();
+        List<NodeDTO> data = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, NodeDTO> record : records) {
+            partitions.add(new TopicPartition(record.topic(), record.partition()));
+            data.add(record.value());
+        }
+
+        List<NodeDTO> edits = coalesce(data);
+        metrics.recordBatch(records.size(), edits.size());
+        AtomicInteger updated = new AtomicInteger();
+        try {
+            List<NodeDTO> conditional = edits;
+            if (editBuffer.isEnabled()) {
+                // unconditional edits of the whole poll go to the journal with one fsync
+                List<NodeDTO> unconditional = edits.stream().filter(edit -> edit.version() == null).toList();
+                editBuffer.submitAll(unconditional);
+                updated.addAndGet(unconditional.size());
+                conditional = edits.stream().filter(edit -> edit.version() != null).toList();
+            }
+            workerPool.executeAll(splitByWorker(conditional), chunk ->
+                    updated.addAndGet(updateWithRetry(chunk)));
+        } catch (RuntimeException e) {
+            metrics.recordFailure();
+            throw e;
+        }
+        if (updated.get() < edits.size()) {
+            log.warn("KafkaListeners skipped {} edits of not existing nodes or stale versions",
+                    edits.size() - updated.get());
+        }
+
+        Duration duration = Duration.ofNanos(System.nanoTime() - start);
+        for (TopicPartition partition : partitions) {
+            metrics.recordProcessing(partition, duration);
+            consumer.currentLag(partition).ifPresent(lag -> metrics.recordLag(partition, lag));
+        }
+    }
+
+    /**
+     * A concurrent write to a node of the chunk (REST, gRPC, another consumer) rolls back
+     * the whole transaction; it is re-read and reapplied a bounded number of times,
+     * where unconditional edits win and edits with a stale expected version are skipped
+     * @return edits applied
+     */
+    private int updateWithRetry(List<NodeDTO> chunk) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return nodeManager.updateAll(chunk).size();
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= retryAttempts) {
+                    throw e;
+                }
+                metrics.recordRetry();
+                log.debug("KafkaListeners retries {} edits after a concurrent write, attempt {}", chunk.size(), attempt);
+                try {
+                    Thread.sleep(retryBackoff.multipliedBy(attempt).toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Keeps only the last edit per node id, in the order of the last edits.
+     * Tombstones, edits without a valid node id and edits breaking the column limits are dropped,
+     * as are versioned edits conflicting with an earlier edit of the batch: the first writer wins.
+     */
+    static List<NodeDTO> coalesce(List<NodeDTO> data) {
+        Map<UUID, EditChain> lastEdits = new LinkedHashMap<>();
+        for (NodeDTO nodeDTO : data) {
+            UUID nodeId = nodeDTO == null ? null : parseId(nodeDTO.id());
+            if (nodeId == null || !isValid(nodeDTO)) {
+                log.warn("KafkaListeners dropped invalid edit: {}", nodeDTO);
+                continue;
+            }
+            EditChain chain = lastEdits.remove(nodeId);
+            if (EditChain.conflicts(chain, nodeDTO)) {
+                log.warn("KafkaListeners dropped edit with a stale version: {}", nodeDTO);
+                lastEdits.put(nodeId, chain);
+                continue;
+            }
+            lastEdits.put(nodeId, EditChain.append(chain, nodeDTO));
+        }
+        return lastEdits.values().stream().map(EditChain::edit).toList();
+    }
+
+    /**
+     * Edits of one node in a batch. An edit made on top of the previous one (expected version
+     * one higher) takes over the expected version of the chain, so the chain applies as a single edit.
+     * @param lastVersion expected version of the last edit as sent
+     */
+    private record EditChain(NodeDTO edit, Long lastVersion) {
+
+        /**
+         * A versioned edit not made on top of the versioned chain would be rejected
+         * by optimistic locking once the chain is applied; after an unconditional edit,
+         * which bumps the version to one the sender could not know, it is stale as well
+         */
+        static boolean conflicts(EditChain chain, NodeDTO next) {
+            return chain != null && next.version() != null
+                    && (chain.lastVersion() == null || next.version() != chain.lastVersion() + 1);
+        }
+
+        static EditChain append(EditChain chain, NodeDTO next) {
+            if (chain != null && chain.lastVersion() != null && next.version() != null
+                    && next.version() == chain.lastVersion() + 1) {
+                return new EditChain(next.withVersion(chain.edit().version()), next.version());
+            }
+            return new EditChain(next, next.version());
+        }
+    }
+
+    private Map<Integer, List<NodeDTO>> splitByWorker(List<NodeDTO> edits) {
+        Map<Integer, List<NodeDTO>> chunks = new TreeMap<>();
+        for (NodeDTO nodeDTO : edits) {
+            int worker = workerPool.workerOf(UUID.fromString(nodeDTO.id()));
+            chunks.computeIfAbsent(worker, w -> new ArrayList<>()).add(nodeDTO);
+        }
+        return chunks;
+    }
+
+    private static boolean isValid(NodeDTO nodeDTO) {
+        try {
+            MultiNode.checkEdit(nodeDTO.title(), nodeDTO.contentText());
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static UUID parseId(String id) {
+        if (id == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(id);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
     }
 }
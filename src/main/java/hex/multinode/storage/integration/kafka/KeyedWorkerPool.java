@@ -0,0 +1,69 @@
+package hex.multinode.storage.integration.kafka;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Single-threaded workers selected by key hash: different keys run in parallel,
+ * tasks for the same key always land on the same worker and keep their order.
+ * With no workers tasks run on the calling thread.
+ */
+public class KeyedWorkerPool implements AutoCloseable {
+
+    private final ExecutorService[] workers;
+
+    public KeyedWorkerPool(int size) {
+        this.workers = new ExecutorService[Math.max(size, 0)];
+        for (int i = 0; i < workers.length; i++) {
+            String name = "node-edit-worker-" + i;
+            workers[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    public int size() {
+        return workers.length;
+    }
+
+    public int workerOf(Object key) {
+        return workers.length == 0 ? 0 : Math.floorMod(key.hashCode(), workers.length);
+    }
+
+    /**
+     * Runs the task once per worker chunk and waits for all of them,
+     * rethrowing the first failure
+     */
+    public <T> void executeAll(Map<Integer, List<T>> chunks, Consumer<List<T>> task) {
+        if (workers.length == 0) {
+            chunks.values().forEach(task);
+            return;
+        }
+        List<CompletableFuture<Void>> futures = new ArrayList<>(chunks.size());
+        chunks.forEach((worker, chunk) ->
+                futures.add(CompletableFuture.runAsync(() -> task.accept(chunk), workers[worker])));
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        for (ExecutorService worker : workers) {
+            worker.shutdown();
+        }
+    }
+}
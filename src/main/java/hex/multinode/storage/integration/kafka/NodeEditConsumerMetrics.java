@@ -0,0 +1,95 @@
+package hex.multinode.storage.integration.kafka;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-partition consumer lag and edit processing time,
+ * batch sizes, consumed records (rate gives records/sec), retried and failed batches
+ */
+@Component
+public class NodeEditConsumerMetrics {
+
+    private final MeterRegistry registry;
+    private final Map<TopicPartition, AtomicLong> lags = new ConcurrentHashMap<>();
+    private final Map<TopicPartition, Timer> timers = new ConcurrentHashMap<>();
+    private final DistributionSummary batchSize;
+    private final Counter records;
+    private final Counter coalesced;
+    private final Counter retries;
+    private final Counter failures;
+
+    public NodeEditConsumerMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.batchSize = DistributionSummary.builder("nodestorage.kafka.edit.batch.size")
+                .description("Records per poll")
+                .register(registry);
+        this.records = Counter.builder("nodestorage.kafka.edit.records")
+                .description("Consumed edit records")
+                .register(registry);
+        this.coalesced = Counter.builder("nodestorage.kafka.edit.coalesced")
+                .description("Edits dropped by coalescing: superseded in the batch or without a valid node id")
+                .register(registry);
+        this.retries = Counter.builder("nodestorage.kafka.edit.retries")
+                .description("Chunks reapplied after a concurrent write to one of their nodes")
+                .register(registry);
+        this.failures = Counter.builder("nodestorage.kafka.edit.failures")
+                .description("Batches failed to apply")
+                .register(registry);
+    }
+
+    /**
+     * @param recordCount records in the poll
+     * @param editCount edits left after coalescing
+     */
+    public void recordBatch(int recordCount, int editCount) {
+        batchSize.record(recordCount);
+        records.increment(recordCount);
+        coalesced.increment(recordCount - editCount);
+    }
+
+    public void recordRetry() {
+        retries.increment();
+    }
+
+    public void recordFailure() {
+        failures.increment();
+    }
+
+    public void recordLag(TopicPartition partition, long lag) {
+        lags.computeIfAbsent(partition, tp -> {
+            AtomicLong value = new AtomicLong();
+            Gauge.builder("nodestorage.kafka.edit.lag", value, AtomicLong::get)
+                    .description("Records behind the end of the partition after the last poll")
+                    .tags(tags(tp))
+                    .register(registry);
+            return value;
+        }).set(lag);
+    }
+
+    /**
+     * Records the time spent applying a batch for every partition that had records in it
+     */
+    public void recordProcessing(TopicPartition partition, Duration duration) {
+        timers.computeIfAbsent(partition, tp -> Timer.builder("nodestorage.kafka.edit.processing")
+                .description("Time to apply a batch containing records of the partition")
+                .tags(tags(tp))
+                .register(registry)
+        ).record(duration);
+    }
+
+    private static Tags tags(TopicPartition partition) {
+        return Tags.of("topic", partition.topic(), "partition", String.valueOf(partition.partition()));
+    }
+}
@@ -1,17 +1,34 @@
 package hex.multinode.storage.integration.rest;
 
 import hex.multinode.storage.model.data.MultiNode;
+import hex.multinode.storage.model.dto.GraphImportDTO;
+import hex.multinode.storage.model.dto.ForkPopularityDTO;
+import hex.multinode.storage.model.dto.LinkDTO;
 import hex.multinode.storage.service.NodeManager;
 import hex.multinode.storage.model.dto.NodeDTO;
+import hex.multinode.storage.model.dto.NodeField;
+import hex.multinode.storage.model.dto.NodeFields;
+import hex.multinode.storage.model.dto.NodeSnapshot;
+import hex.multinode.storage.model.dto.NodeView;
+import hex.multinode.storage.model.dto.SnapshotInfo;
+import hex.multinode.storage.model.dto.StoryPathDTO;
+import hex.multinode.storage.model.dto.StoryStatsDTO;
+import hex.multinode.storage.model.dto.TextSearchPage;
+import hex.multinode.storage.model.dto.TitleMatch;
+import hex.multinode.storage.model.dto.TitlePage;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.UUID;
 
 @RestController
 @RequestMapping(path = "api/v1/nodes")
@@ -24,39 +41,205 @@ public class NodeController {
         this.nodeManager = nodeManager;
     }
 
+    /**
+     * @param fields node fields to return, e.g. fields=id,title; all by default
+     */
     @GetMapping("/{id}")
-    public MultiNode findNodeById(@PathVariable String id) {
-        return nodeManager.findById(id).orElseThrow(() ->
-                new ResponseStatusException(HttpStatus.NOT_FOUND));
+    public Map<String, Object> findNodeById(@PathVariable String id,
+                                            @RequestParam(required = false) List<String> fields) {
+        NodeFields selected = parseFields(fields);
+        return nodeManager.findSnapshotById(id)
+                .map(node -> select(node, selected))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
     }
 
+    /**
+     * @param fields node fields to return; without text the content is not read
+     */
     @GetMapping("/find")
-    public List<MultiNode> findNodesByTitle(@RequestParam @NotBlank() String title) {
-        return nodeManager.findNodesByTitle(title);
+    public List<Map<String, Object>> findNodesByTitle(@RequestParam @NotBlank() String title,
+                                                      @RequestParam(required = false) List<String> fields) {
+        NodeFields selected = parseFields(fields);
+        return select(nodeManager.findViewsByTitle(title, selected), selected);
+    }
+
+    /**
+     * @param fields node fields to return; without text the content is not read
+     */
+    @GetMapping("/search")
+    public Map<String, Object> searchNodesByTitle(@RequestParam @NotBlank String title,
+                                                  @RequestParam(defaultValue = "EXACT") TitleMatch match,
+                                                  @RequestParam(required = false) String pageToken,
+                                                  @RequestParam(defaultValue = "50") int limit,
+                                                  @RequestParam(required = false) List<String> fields) {
+        NodeFields selected = parseFields(fields);
+        TitlePage page;
+        try {
+            page = nodeManager.searchByTitle(title, match, pageToken, limit, selected);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("nodes", select(page.nodes(), selected));
+        json.put("nextPageToken", page.nextPageToken());
+        return json;
+    }
+
+    @GetMapping("/text-search")
+    public TextSearchPage searchText(@RequestParam @NotBlank String query,
+                                     @RequestParam(required = false) String pageToken,
+                                     @RequestParam(defaultValue = "50") int limit) {
+        try {
+            return nodeManager.search(query, pageToken, limit);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    @GetMapping("/{id}/forks")
+    public List<LinkDTO> findForks(@PathVariable String id) {
+        try {
+            return nodeManager.findForks(id);
+        } catch (NoSuchElementException | IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
+        }
+    }
+
+    @GetMapping("/{id}/forks/popularity")
+    public List<ForkPopularityDTO> findForkPopularity(@PathVariable String id) {
+        try {
+            return nodeManager.findForkPopularity(id);
+        } catch (NoSuchElementException | IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
+        }
+    }
+
+    @GetMapping("/{id}/roots")
+    public List<LinkDTO> findRoots(@PathVariable String id) {
+        try {
+            return nodeManager.findRoots(id);
+        } catch (NoSuchElementException | IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
+        }
+    }
+
+    @GetMapping("/{id}/path")
+    public StoryPathDTO walk(@PathVariable String id, @RequestParam(defaultValue = "") List<String> steps) {
+        try {
+            return nodeManager.walk(id, steps);
+        } catch (NoSuchElementException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    @GetMapping("/{id}/stats")
+    public StoryStatsDTO analyzeStory(@PathVariable String id) {
+        try {
+            return nodeManager.analyzeStory(id);
+        } catch (NoSuchElementException | IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
+        }
+    }
+
+    @GetMapping("/unreachable")
+    public List<UUID> findUnreachable() {
+        return nodeManager.findUnreachable();
     }
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public MultiNode createNode(@Valid @RequestBody NodeDTO nodeDTO) {
-        return nodeManager.save(nodeDTO);
+    public NodeView createNode(@Valid @RequestBody NodeDTO nodeDTO) {
+        return NodeView.of(nodeManager.save(nodeDTO));
+    }
+
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    public Map<String, UUID> importNodes(@Valid @RequestBody GraphImportDTO graph) {
+        try {
+            return nodeManager.importGraph(graph);
+        } catch (NoSuchElementException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    @PostMapping("/snapshot")
+    public SnapshotInfo exportSnapshot() {
+        try {
+            return nodeManager.exportSnapshot();
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage(), e);
+        }
     }
 
     @PatchMapping
-    public MultiNode editNode(@Valid @RequestBody NodeDTO nodeDTO) {
+    public NodeView editNode(@Valid @RequestBody NodeDTO nodeDTO) {
         try {
-            return nodeManager.update(nodeDTO);
+            return NodeView.of(nodeManager.update(nodeDTO));
         } catch (NoSuchElementException | IllegalArgumentException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
+        } catch (OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage(), e);
         }
     }
 
     @DeleteMapping("/{id}")
-    public MultiNode deleteNode(@PathVariable @NotBlank String id) {
+    public NodeView deleteNode(@PathVariable @NotBlank String id) {
         try {
-            return nodeManager.deleteById(id);
+            return NodeView.of(nodeManager.deleteById(id));
         } catch (NoSuchElementException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
         }
     }
 
+    private static NodeFields parseFields(List<String> fields) {
+        try {
+            return NodeFields.of(fields);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Requested fields in the order of {@link NodeView}
+     */
+    private static Map<String, Object> select(NodeView node, NodeFields fields) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        putIf(json, fields, NodeField.ID, "id", node.id());
+        putIf(json, fields, NodeField.TITLE, "title", node.title());
+        putIf(json, fields, NodeField.TEXT, "text", node.text());
+        putIf(json, fields, NodeField.DATE_CREATED, "dateCreated", node.dateCreated());
+        putIf(json, fields, NodeField.DATE_UPDATED, "dateUpdated", node.dateUpdated());
+        putIf(json, fields, NodeField.VERSION, "version", node.version());
+        return json;
+    }
+
+    private static List<Map<String, Object>> select(List<NodeView> nodes, NodeFields fields) {
+        return nodes.stream().map(node -> select(node, fields)).toList();
+    }
+
+    /**
+     * Requested fields in the order of {@link NodeSnapshot}
+     */
+    private static Map<String, Object> select(NodeSnapshot node, NodeFields fields) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        putIf(json, fields, NodeField.ID, "id", node.id());
+        putIf(json, fields, NodeField.TITLE, "title", node.title());
+        putIf(json, fields, NodeField.TEXT, "text", node.text());
+        putIf(json, fields, NodeField.DATE_CREATED, "dateCreated", node.dateCreated());
+        putIf(json, fields, NodeField.DATE_UPDATED, "dateUpdated", node.dateUpdated());
+        putIf(json, fields, NodeField.VERSION, "version", node.version());
+        putIf(json, fields, NodeField.FORKS, "forks", node.forks());
+        return json;
+    }
+
+    private static void putIf(Map<String, Object> json, NodeFields fields, NodeField field, String name, Object value) {
+        if (fields.has(field)) {
+            json.put(name, value);
+        }
+    }
+
 }
@@ -0,0 +1,111 @@
+package hex.multinode.storage.model.data;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Immutable;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+/**
+ * Content text stored once per distinct value, addressed by the SHA-256 of its UTF-8 bytes.
+ * Bodies are LZ4-compressed when that makes them smaller.
+ */
+@Entity
+@Immutable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY)
+@Table(name = "content_blob")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class ContentBlob {
+
+    /**
+     * Longest text in UTF-8 bytes, so also the largest stored body
+     */
+    public static final int MAX_BYTES = 1 << 20;
+
+    private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+    private static final LZ4SafeDecompressor DECOMPRESSOR = LZ4Factory.fastestInstance().safeDecompressor();
+
+    public enum Codec {
+        STORED,
+        LZ4
+    }
+
+    @Id
+    @Column(name = "hash", length = 64, nullable = false)
+    private String hash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "codec", length = 8, nullable = false)
+    private Codec codec;
+
+    /**
+     * Length of the text in UTF-8 bytes
+     */
+    @Column(name = "raw_length", nullable = false)
+    private int rawLength;
+
+    @Column(name = "data", length = MAX_BYTES, nullable = false)
+    private byte[] data;
+
+    private ContentBlob(String hash, Codec codec, int rawLength, byte[] data) {
+        this.hash = hash;
+        this.codec = codec;
+        this.rawLength = rawLength;
+        this.data = data;
+    }
+
+    public static ContentBlob of(String text) {
+        byte[] raw = text.getBytes(StandardCharsets.UTF_8);
+        if (raw.length > MAX_BYTES) {
+            throw new IllegalArgumentException("Content text is too long: " + raw.length + " bytes");
+        }
+        byte[] compressed = new byte[COMPRESSOR.maxCompressedLength(raw.length)];
+        int length = COMPRESSOR.compress(raw, 0, raw.length, compressed, 0, compressed.length);
+        return length < raw.length
+                ? new ContentBlob(hash(raw), Codec.LZ4, raw.length, Arrays.copyOf(compressed, length))
+                : new ContentBlob(hash(raw), Codec.STORED, raw.length, raw);
+    }
+
+    public static String hash(String text) {
+        return hash(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decompresses the text, the body is kept as stored
+     */
+    public String text() {
+        return text(codec, rawLength, data);
+    }
+
+    /**
+     * Text of a blob selected as columns
+     */
+    public static String text(Codec codec, int rawLength, byte[] data) {
+        if (codec == Codec.STORED) {
+            return new String(data, StandardCharsets.UTF_8);
+        }
+        byte[] raw = new byte[rawLength];
+        DECOMPRESSOR.decompress(data, 0, data.length, raw, 0, rawLength);
+        return new String(raw, StandardCharsets.UTF_8);
+    }
+
+    private static String hash(byte[] raw) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(raw));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
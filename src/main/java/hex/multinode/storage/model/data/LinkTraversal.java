@@ -0,0 +1,29 @@
+package hex.multinode.storage.model.data;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * How many times readers followed a link, written by ForkPopularity in batches of increments.
+ * No foreign key to multi_link: rows of deleted links are dropped on the next flush.
+ */
+@Entity
+@Table(name = "link_traversal")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class LinkTraversal {
+
+    @Id
+    @Column(name = "link_id", nullable = false)
+    private UUID linkId;
+
+    @Column(name = "traversals", nullable = false)
+    private long traversals;
+}
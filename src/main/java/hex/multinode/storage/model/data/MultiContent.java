@@ -2,11 +2,14 @@ package hex.multinode.storage.model.data;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.GenericGenerator;
 
 import java.util.UUID;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "multi_content")
 @Getter
 @Setter
@@ -19,12 +22,33 @@ public class MultiContent {
     @Column(name = "id", nullable = false)
     private UUID id;
 
+    /**
+     * Short text stored in the row, longer text lives in {@link #blob}
+     */
     @Column(name = "text", length = 1000)
+    @Getter(AccessLevel.NONE)
     private String text;
 
+    @ManyToOne(fetch = FetchType.EAGER)
+    @JoinColumn(name = "text_hash")
+    @Setter(AccessLevel.NONE)
+    private ContentBlob blob;
+
+    /**
+     * Text of the blob, decompressed on first access
+     */
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private String blobText;
+
     @Column(name = "illustration_loc")
     private String illustrationLoc;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
 //    private Animation animationLoc;
 //    private Audio audioLoc;
 //    private Video videoLoc;
@@ -38,4 +62,32 @@ public class MultiContent {
         this.illustrationLoc = illustrationLoc;
     }
 
+    public String getText() {
+        if (blob == null) {
+            return text;
+        }
+        if (blobText == null) {
+            blobText = blob.text();
+        }
+        return blobText;
+    }
+
+    /**
+     * Replaces the text, it is kept in the row until moved to a blob
+     */
+    public void setText(String text) {
+        this.text = text;
+        this.blob = null;
+        this.blobText = null;
+    }
+
+    /**
+     * Moves the text to the blob holding it
+     */
+    public void setBlob(ContentBlob blob, String text) {
+        this.text = null;
+        this.blob = blob;
+        this.blobText = text;
+    }
+
 }
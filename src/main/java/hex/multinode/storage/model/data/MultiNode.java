@@ -3,37 +3,57 @@ package hex.multinode.storage.model.data;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.GenericGenerator;
 import org.hibernate.annotations.UpdateTimestamp;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
 
 @Entity
-@Table(name = "multi_node")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name = "multi_node", indexes = {
+        @Index(name = "ix_multi_node_title_id", columnList = "title, id"),
+        @Index(name = "ix_multi_node_title_key_id", columnList = "title_key, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class MultiNode {
+    public static final int MAX_TITLE_LENGTH = 255;
+
     @Id
     @GenericGenerator(name = "UUID_v7_id", strategy = "hex.multinode.storage.model.generator.UUIDV7Generator")
     @GeneratedValue(generator = "UUID_v7_id")
     @Column(name = "id", nullable = false)
     private UUID id;
 
-    @Column(name = "title", nullable = false)
+    @Column(name = "title", length = MAX_TITLE_LENGTH, nullable = false)
     private String title;
 
+    /**
+     * Lower-cased title for case-insensitive search, kept in sync on flush
+     */
+    @Column(name = "title_key", nullable = false)
+    @Setter(AccessLevel.NONE)
+    private String titleKey;
+
     @OneToMany(mappedBy = "childNode", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private List<MultiLink> roots;
 
     @OneToMany(mappedBy = "parentNode", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private List<MultiLink> forks;
 
-    @OneToOne(cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+    /**
+     * Loaded with the node by the finders returning it, skipped by views without text
+     */
+    @OneToOne(cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     @JoinColumn(name = "content_id")
     private MultiContent content;
 
@@ -43,6 +63,13 @@ public class MultiNode {
     @UpdateTimestamp
     private LocalDateTime dateUpdated;
 
+    /**
+     * Optimistic lock of the node with its content, bumped once per committed edit
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
     public MultiNode(String title) {
         this.title = title;
     }
@@ -52,6 +79,36 @@ public class MultiNode {
         this.content = content;
     }
 
+    public static String titleKey(String title) {
+        return title == null ? null : title.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Checks an edit against the column limits, so it is rejected before it is accepted
+     * rather than when its transaction commits
+     */
+    public static void checkEdit(String title, String contentText) {
+        if (title == null) {
+            throw new IllegalArgumentException("Node title is missing");
+        }
+        if (title.length() > MAX_TITLE_LENGTH) {
+            throw new IllegalArgumentException("Node title is too long: " + title.length() + " chars");
+        }
+        // a UTF-8 char takes at most 3 bytes per UTF-16 unit
+        if (contentText != null && (long) contentText.length() * 3 > ContentBlob.MAX_BYTES) {
+            int bytes = contentText.getBytes(StandardCharsets.UTF_8).length;
+            if (bytes > ContentBlob.MAX_BYTES) {
+                throw new IllegalArgumentException("Content text is too long: " + bytes + " bytes");
+            }
+        }
+    }
+
+    @PrePersist
+    @PreUpdate
+    private void updateTitleKey() {
+        titleKey = titleKey(title);
+    }
+
     private List<MultiLink> getRoots() {
         return roots;
     }
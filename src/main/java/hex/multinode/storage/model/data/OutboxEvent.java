@@ -0,0 +1,43 @@
+package hex.multinode.storage.model.data;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Node event written in the transaction of the change and removed once published to Kafka.
+ * Rows are written and read by NodeOutbox and NodeOutboxRelay over JDBC.
+ */
+@Entity
+@Table(name = "node_outbox")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class OutboxEvent {
+
+    /**
+     * Largest encoded event
+     */
+    public static final int MAX_BYTES = 2048;
+
+    /**
+     * UUIDv7 of the event, rows are published in id order
+     */
+    @Id
+    @Column(name = "id", nullable = false)
+    private UUID id;
+
+    /**
+     * Message key: events of one node go to one partition
+     */
+    @Column(name = "node_id", nullable = false)
+    private UUID nodeId;
+
+    @Column(name = "payload", length = MAX_BYTES, nullable = false)
+    private byte[] payload;
+}
@@ -0,0 +1,14 @@
+package hex.multinode.storage.model.dto;
+
+import java.util.UUID;
+
+/**
+ * Вариант выбора и сколько раз читатели его выбирали
+ * @param traversals переходы, записанные в БД, и накопленные с последней записи
+ */
+public record ForkPopularityDTO(
+        UUID linkId,
+        UUID childNodeId,
+        String choiceText,
+        long traversals) {
+}
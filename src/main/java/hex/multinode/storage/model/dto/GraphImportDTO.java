@@ -0,0 +1,35 @@
+package hex.multinode.storage.model.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+/**
+ * Подграф для импорта: ноды с временными id клиента и связи между ними.
+ * Концы связи - временный id ноды из этого импорта или id существующей ноды.
+ */
+public record GraphImportDTO(
+        @NotNull
+        List<@Valid Node> nodes,
+        @NotNull
+        List<@Valid Link> links) {
+
+    public record Node(
+            @NotBlank
+            String tempId,
+            @NotBlank
+            String title,
+            String contentText) {
+    }
+
+    public record Link(
+            @NotBlank
+            String from,
+            @NotBlank
+            String to,
+            @NotBlank
+            String choiceText) {
+    }
+}
@@ -0,0 +1,10 @@
+package hex.multinode.storage.model.dto;
+
+import java.util.UUID;
+
+public record LinkDTO(
+        UUID id,
+        UUID parentNodeId,
+        UUID childNodeId,
+        String choiceText) {
+}
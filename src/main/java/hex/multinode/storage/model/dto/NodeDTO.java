@@ -1,18 +1,33 @@
 package hex.multinode.storage.model.dto;
 
+import hex.multinode.storage.model.data.MultiNode;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 
+/**
+ * @param version ожидаемая версия ноды при изменении, null - без проверки (последняя запись побеждает)
+ */
 public record NodeDTO(
         String id,
         @NotBlank
+        @Size(max = MultiNode.MAX_TITLE_LENGTH)
         String title,
-        String contentText) {
+        String contentText,
+        Long version) {
 
     public static NodeDTO of(String title, String contentText) {
-        return new NodeDTO(null, title, contentText);
+        return new NodeDTO(null, title, contentText, null);
     }
 
     public static NodeDTO of(String id, String title, String contentText) {
-        return new NodeDTO(id, title, contentText);
+        return new NodeDTO(id, title, contentText, null);
+    }
+
+    public static NodeDTO of(String id, String title, String contentText, Long version) {
+        return new NodeDTO(id, title, contentText, version);
+    }
+
+    public NodeDTO withVersion(Long version) {
+        return new NodeDTO(id, title, contentText, version);
     }
 }
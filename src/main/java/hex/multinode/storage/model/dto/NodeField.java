@@ -0,0 +1,34 @@
+package hex.multinode.storage.model.dto;
+
+import java.util.Locale;
+
+/**
+ * Поле ноды в маске полей (field mask) запросов чтения
+ */
+public enum NodeField {
+    ID,
+    TITLE,
+    /**
+     * Единственное поле, требующее чтения контента
+     */
+    TEXT,
+    VERSION,
+    DATE_CREATED,
+    DATE_UPDATED,
+    /**
+     * Варианты выбора, только при чтении ноды по id
+     */
+    FORKS;
+
+    /**
+     * @param path имя поля в snake_case (FieldMask) или camelCase (JSON)
+     */
+    public static NodeField fromPath(String path) {
+        String name = path.strip().replaceAll("([a-z])([A-Z])", "$1_$2").toUpperCase(Locale.ROOT);
+        try {
+            return valueOf(name);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown node field: " + path, e);
+        }
+    }
+}
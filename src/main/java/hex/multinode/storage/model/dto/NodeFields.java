@@ -0,0 +1,36 @@
+package hex.multinode.storage.model.dto;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Поля ноды, запрошенные клиентом. Без текста контент не читается из БД
+ * @param fields непустое множество полей
+ */
+public record NodeFields(Set<NodeField> fields) {
+
+    public static final NodeFields ALL = new NodeFields(EnumSet.allOf(NodeField.class));
+
+    public NodeFields {
+        fields = Set.copyOf(fields);
+    }
+
+    /**
+     * @param paths имена полей, null или пусто - все поля
+     */
+    public static NodeFields of(Collection<String> paths) {
+        if (paths == null || paths.isEmpty()) {
+            return ALL;
+        }
+        EnumSet<NodeField> fields = EnumSet.noneOf(NodeField.class);
+        for (String path : paths) {
+            fields.add(NodeField.fromPath(path));
+        }
+        return new NodeFields(fields);
+    }
+
+    public boolean has(NodeField field) {
+        return fields.contains(field);
+    }
+}
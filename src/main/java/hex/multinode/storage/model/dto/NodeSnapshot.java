@@ -0,0 +1,22 @@
+package hex.multinode.storage.model.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Immutable read model of a node with its choices
+ */
+public record NodeSnapshot(
+        UUID id,
+        String title,
+        String text,
+        LocalDateTime dateCreated,
+        LocalDateTime dateUpdated,
+        long version,
+        List<LinkDTO> forks) {
+
+    public NodeSnapshot {
+        forks = List.copyOf(forks);
+    }
+}
@@ -0,0 +1,41 @@
+package hex.multinode.storage.model.dto;
+
+import hex.multinode.storage.model.data.ContentBlob;
+import hex.multinode.storage.model.data.MultiNode;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Flat read projection of a node, selected in one query without loading entities
+ */
+public record NodeView(
+        UUID id,
+        String title,
+        String text,
+        LocalDateTime dateCreated,
+        LocalDateTime dateUpdated,
+        long version) {
+
+    /**
+     * Projection with the content text either inline or as a blob
+     */
+    public NodeView(UUID id, String title, String text, ContentBlob.Codec codec, Integer rawLength, byte[] data,
+                    LocalDateTime dateCreated, LocalDateTime dateUpdated, long version) {
+        this(id, title, codec == null ? text : ContentBlob.text(codec, rawLength, data),
+                dateCreated, dateUpdated, version);
+    }
+
+    /**
+     * Projection without the content
+     */
+    public NodeView(UUID id, String title, LocalDateTime dateCreated, LocalDateTime dateUpdated, long version) {
+        this(id, title, null, dateCreated, dateUpdated, version);
+    }
+
+    public static NodeView of(MultiNode node) {
+        String text = node.getContent() == null ? null : node.getContent().getText();
+        return new NodeView(node.getId(), node.getTitle(), text, node.getDateCreated(), node.getDateUpdated(),
+                node.getVersion());
+    }
+}
@@ -0,0 +1,13 @@
+package hex.multinode.storage.model.dto;
+
+/**
+ * Выгруженный снимок графа сюжетов
+ * @param file путь к файлу снимка
+ * @param bytes размер файла
+ */
+public record SnapshotInfo(
+        String file,
+        int nodes,
+        int links,
+        long bytes) {
+}
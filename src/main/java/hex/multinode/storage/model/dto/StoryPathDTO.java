@@ -0,0 +1,11 @@
+package hex.multinode.storage.model.dto;
+
+import java.util.List;
+
+/**
+ * Пройденный путь: ноды от стартовой и выбранные связи между ними
+ */
+public record StoryPathDTO(
+        List<NodeSnapshot> nodes,
+        List<LinkDTO> choices) {
+}
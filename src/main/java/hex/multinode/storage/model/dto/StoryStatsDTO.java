@@ -0,0 +1,28 @@
+package hex.multinode.storage.model.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Статистика сюжета, достижимого из стартовой ноды
+ * @param branchingFactor среднее число вариантов выбора у нод, не являющихся концовками
+ * @param cycles сильно связные компоненты с циклами
+ */
+public record StoryStatsDTO(
+        UUID rootId,
+        int reachableNodes,
+        int reachableLinks,
+        double branchingFactor,
+        List<Ending> endings,
+        List<List<UUID>> cycles) {
+
+    /**
+     * @param shortestPath минимальное число выборов до концовки
+     * @param longestPath максимальное число выборов до концовки без повторного прохода циклов
+     */
+    public record Ending(
+            UUID nodeId,
+            int shortestPath,
+            int longestPath) {
+    }
+}
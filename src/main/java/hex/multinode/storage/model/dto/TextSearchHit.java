@@ -0,0 +1,13 @@
+package hex.multinode.storage.model.dto;
+
+import java.util.UUID;
+
+/**
+ * Нода, найденная полнотекстовым поиском
+ * @param score релевантность BM25, страница упорядочена по убыванию
+ */
+public record TextSearchHit(
+        UUID id,
+        String title,
+        float score) {
+}
@@ -0,0 +1,12 @@
+package hex.multinode.storage.model.dto;
+
+import java.util.List;
+
+/**
+ * Страница полнотекстового поиска
+ * @param nextPageToken null на последней странице
+ */
+public record TextSearchPage(
+        List<TextSearchHit> hits,
+        String nextPageToken) {
+}
@@ -0,0 +1,19 @@
+package hex.multinode.storage.model.dto;
+
+/**
+ * Title search modes; all but CONTAINS are served by a (title, id) or (title_key, id) index
+ */
+public enum TitleMatch {
+    EXACT,
+    PREFIX,
+    IGNORE_CASE,
+    PREFIX_IGNORE_CASE,
+    /**
+     * Case-insensitive substring, scans the table
+     */
+    CONTAINS;
+
+    public boolean ignoreCase() {
+        return this == IGNORE_CASE || this == PREFIX_IGNORE_CASE || this == CONTAINS;
+    }
+}
@@ -0,0 +1,12 @@
+package hex.multinode.storage.model.dto;
+
+import java.util.List;
+
+/**
+ * Страница поиска по заголовку
+ * @param nextPageToken null на последней странице
+ */
+public record TitlePage(
+        List<NodeView> nodes,
+        String nextPageToken) {
+}
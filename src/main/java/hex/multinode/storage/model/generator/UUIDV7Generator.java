@@ -2,7 +2,6 @@ package hex.multinode.storage.model.generator;
 
 import org.hibernate.engine.spi.SharedSessionContractImplementor;
 import org.hibernate.id.IdentifierGenerator;
-import com.fasterxml.uuid.Generators;
 
 import java.util.UUID;
 
@@ -14,7 +13,7 @@ public class UUIDV7Generator implements IdentifierGenerator {
     }
 
     public static UUID generateUuidV7() {
-        return Generators.timeBasedEpochGenerator().generate();
+        return UUIDV7Sequence.shared().next();
     }
 
 }
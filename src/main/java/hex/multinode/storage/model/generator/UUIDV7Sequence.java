@@ -0,0 +1,91 @@
+package hex.multinode.storage.model.generator;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free monotonic UUIDv7 source (RFC 9562, method 3):
+ * 48-bit unix millis and the 12-bit rand_a counter are advanced together by one CAS,
+ * so ids of one process are strictly increasing even within a millisecond;
+ * on counter overflow the timestamp runs ahead of the clock until it catches up.
+ * rand_b is filled from ThreadLocalRandom - ids are unique, not unguessable.
+ */
+public final class UUIDV7Sequence {
+
+    private static final int COUNTER_BITS = 12;
+    private static final long COUNTER_MASK = (1L << COUNTER_BITS) - 1;
+    private static final long VERSION = 7L << COUNTER_BITS;
+    private static final long VARIANT = 0x8000000000000000L;
+    private static final long RAND_B_MASK = 0x3FFFFFFFFFFFFFFFL;
+
+    private static final UUIDV7Sequence SHARED = new UUIDV7Sequence();
+
+    /**
+     * (unix millis << 12) | counter of the last issued id
+     */
+    private final AtomicLong state = new AtomicLong();
+
+    public static UUIDV7Sequence shared() {
+        return SHARED;
+    }
+
+    public UUID next() {
+        return toUuid(advance(1));
+    }
+
+    /**
+     * Reserves count consecutive ids with one CAS, e.g. for a batch insert
+     */
+    public Block nextBlock(int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Block size must be positive: " + count);
+        }
+        long first = advance(count);
+        return new Block(first, first + count);
+    }
+
+    private long advance(int count) {
+        long previous;
+        long first;
+        do {
+            previous = state.get();
+            first = Math.max(System.currentTimeMillis() << COUNTER_BITS, previous + 1);
+        } while (!state.compareAndSet(previous, first + count - 1));
+        return first;
+    }
+
+    private static UUID toUuid(long value) {
+        long mostSigBits = (value >>> COUNTER_BITS) << 16 | VERSION | (value & COUNTER_MASK);
+        long leastSigBits = ThreadLocalRandom.current().nextLong() & RAND_B_MASK | VARIANT;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    /**
+     * Reserved range of ids, handed out in increasing order; not thread-safe
+     */
+    public static final class Block {
+        private final long end;
+        private long cursor;
+
+        private Block(long first, long end) {
+            this.cursor = first;
+            this.end = end;
+        }
+
+        public boolean hasNext() {
+            return cursor < end;
+        }
+
+        public UUID next() {
+            if (cursor == end) {
+                throw new IllegalStateException("Block is exhausted");
+            }
+            return toUuid(cursor++);
+        }
+
+        public int remaining() {
+            return (int) (end - cursor);
+        }
+    }
+}
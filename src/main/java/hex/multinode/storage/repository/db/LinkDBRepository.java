@@ -1,10 +1,16 @@
 package hex.multinode.storage.repository.db;
 
 import hex.multinode.storage.model.data.MultiLink;
+import hex.multinode.storage.model.dto.LinkDTO;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface LinkDBRepository extends JpaRepository<MultiLink, UUID> {
 
@@ -12,4 +18,9 @@ public interface LinkDBRepository extends JpaRepository<MultiLink, UUID> {
 
     List<MultiLink> findLinksByParentNodeId(UUID parentNodeId);
 
+    @Query("select new hex.multinode.storage.model.dto.LinkDTO(l.id, l.parentNode.id, l.childNode.id, l.choiceText) " +
+            "from MultiLink l order by l.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<LinkDTO> streamAllLinks();
+
 }
@@ -1,16 +1,92 @@
 package hex.multinode.storage.repository.db;
 
 import hex.multinode.storage.model.data.MultiNode;
+import hex.multinode.storage.model.dto.NodeView;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
-public interface NodeDBRepository extends JpaRepository<MultiNode, UUID> {
+public interface NodeDBRepository extends JpaRepository<MultiNode, UUID>, NodeSearchRepository {
 
+    String SELECT_VIEW = "select new hex.multinode.storage.model.dto.NodeView("
+            + "n.id, n.title, c.text, b.codec, b.rawLength, b.data, n.dateCreated, n.dateUpdated, n.version) "
+            + "from MultiNode n left join n.content c left join c.blob b ";
+
+    /**
+     * View without the content join, text is null
+     */
+    String SELECT_HEADER = "select new hex.multinode.storage.model.dto.NodeView("
+            + "n.id, n.title, n.dateCreated, n.dateUpdated, n.version) "
+            + "from MultiNode n ";
+
+    @Override
+    @EntityGraph(attributePaths = {"content", "content.blob"})
+    Optional<MultiNode> findById(UUID id);
+
+    /**
+     * Node for linking, the content is not loaded
+     */
+    Optional<MultiNode> findNodeById(UUID id);
+
+    @EntityGraph(attributePaths = {"content", "content.blob"})
     List<MultiNode> findNodesByTitle(String title);
 
+    @EntityGraph(attributePaths = {"content", "content.blob"})
+    List<MultiNode> findNodesByIdIn(Collection<UUID> ids);
+
+    @Query(SELECT_VIEW + "where n.id = :id")
+    Optional<NodeView> findViewById(UUID id);
+
+    @Query(SELECT_VIEW + "where n.id in :ids")
+    List<NodeView> findViewsByIdIn(Collection<UUID> ids);
+
+    @Query(SELECT_VIEW + "where n.title = :title")
+    List<NodeView> findViewsByTitle(String title);
+
+    @Query(SELECT_VIEW + "where n.title = :title order by n.id")
+    List<NodeView> findViewsByTitle(String title, Limit limit);
+
+    @Query(SELECT_VIEW + "where n.title = :title and n.id > :afterId order by n.id")
+    List<NodeView> findViewsByTitleAfter(String title, UUID afterId, Limit limit);
+
+    @Query(SELECT_HEADER + "where n.title = :title")
+    List<NodeView> findHeadersByTitle(String title);
+
+    @Query(SELECT_HEADER + "where n.title = :title order by n.id")
+    List<NodeView> findHeadersByTitle(String title, Limit limit);
+
+    @Query(SELECT_HEADER + "where n.title = :title and n.id > :afterId order by n.id")
+    List<NodeView> findHeadersByTitleAfter(String title, UUID afterId, Limit limit);
+
+    @Query("select n.id from MultiNode n where n.id in :ids")
+    List<UUID> findExistingIds(Collection<UUID> ids);
+
+    @Query("select n.id from MultiNode n")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<UUID> streamAllIds();
+
+    @Query(SELECT_VIEW)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<NodeView> streamAllViews();
+
+    @Query(SELECT_VIEW + "order by n.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<NodeView> streamAllViewsOrderById();
+
+    @Query("select max(n.dateUpdated) from MultiNode n")
+    Optional<LocalDateTime> findLastUpdated();
+
 }
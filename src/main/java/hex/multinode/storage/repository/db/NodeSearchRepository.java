@@ -0,0 +1,25 @@
+package hex.multinode.storage.repository.db;
+
+import hex.multinode.storage.model.dto.NodeView;
+import hex.multinode.storage.model.dto.TitleMatch;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Title search with keyset pagination, ordered by (title, id) or by (title_key, id) when ignoring case
+ */
+public interface NodeSearchRepository {
+
+    /**
+     * @param after sort key of the last node of the previous page, null - first page
+     * @param withText false - the content is not joined and views have no text
+     */
+    List<NodeView> searchByTitle(String title, TitleMatch match, TitleCursor after, int limit, boolean withText);
+
+    /**
+     * Position after a node: its title (lower-cased when ignoring case) and id
+     */
+    record TitleCursor(String key, UUID id) {
+    }
+}
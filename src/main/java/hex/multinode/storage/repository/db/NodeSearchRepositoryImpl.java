@@ -0,0 +1,63 @@
+package hex.multinode.storage.repository.db;
+
+import hex.multinode.storage.model.data.MultiNode;
+import hex.multinode.storage.model.dto.NodeView;
+import hex.multinode.storage.model.dto.TitleMatch;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.List;
+
+class NodeSearchRepositoryImpl implements NodeSearchRepository {
+
+    private static final char LIKE_ESCAPE = '!';
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<NodeView> searchByTitle(String title, TitleMatch match, TitleCursor after, int limit,
+                                        boolean withText) {
+        String key = match.ignoreCase() ? "n.titleKey" : "n.title";
+        String value = match.ignoreCase() ? MultiNode.titleKey(title) : title;
+        StringBuilder jpql = new StringBuilder(withText ? NodeDBRepository.SELECT_VIEW : NodeDBRepository.SELECT_HEADER).append("where ").append(key);
+        switch (match) {
+            case EXACT, IGNORE_CASE -> jpql.append(" = :value");
+            case PREFIX, PREFIX_IGNORE_CASE -> {
+                jpql.append(" like :value escape '" + LIKE_ESCAPE + "'");
+                value = escapeLike(value) + "%";
+            }
+            case CONTAINS -> {
+                jpql.append(" like :value escape '" + LIKE_ESCAPE + "'");
+                value = "%" + escapeLike(value) + "%";
+            }
+        }
+        if (after != null) {
+            jpql.append(" and (").append(key).append(" > :afterKey or (")
+                    .append(key).append(" = :afterKey and n.id > :afterId))");
+        }
+        jpql.append(" order by ").append(key).append(", n.id");
+
+        TypedQuery<NodeView> query = entityManager.createQuery(jpql.toString(), NodeView.class)
+                .setParameter("value", value)
+                .setMaxResults(limit);
+        if (after != null) {
+            query.setParameter("afterKey", after.key())
+                    .setParameter("afterId", after.id());
+        }
+        return query.getResultList();
+    }
+
+    private static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 4);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
@@ -4,27 +4,111 @@ import hex.multinode.storage.aspect.NodeToLog;
 import hex.multinode.storage.model.data.MultiContent;
 import hex.multinode.storage.model.data.MultiLink;
 import hex.multinode.storage.model.data.MultiNode;
+import hex.multinode.storage.model.dto.ForkPopularityDTO;
+import hex.multinode.storage.model.dto.GraphImportDTO;
+import hex.multinode.storage.model.dto.LinkDTO;
 import hex.multinode.storage.model.dto.NodeDTO;
+import hex.multinode.storage.model.dto.NodeField;
+import hex.multinode.storage.model.dto.NodeFields;
+import hex.multinode.storage.model.dto.NodeSnapshot;
+import hex.multinode.storage.model.dto.NodeView;
+import hex.multinode.storage.model.dto.SnapshotInfo;
+import hex.multinode.storage.model.dto.StoryPathDTO;
+import hex.multinode.storage.model.dto.StoryStatsDTO;
+import hex.multinode.storage.model.dto.TextSearchHit;
+import hex.multinode.storage.model.dto.TextSearchPage;
+import hex.multinode.storage.model.dto.TitleMatch;
+import hex.multinode.storage.model.dto.TitlePage;
 import hex.multinode.storage.repository.db.LinkDBRepository;
 import hex.multinode.storage.repository.db.NodeDBRepository;
+import hex.multinode.storage.repository.db.NodeSearchRepository.TitleCursor;
+import hex.multinode.storage.service.cache.NodeCache;
+import hex.multinode.storage.service.content.ContentStore;
+import hex.multinode.storage.service.event.NodeEvent;
+import hex.multinode.storage.service.graph.StoryGraphAnalytics;
+import hex.multinode.storage.service.graph.StoryGraphIndex;
+import hex.multinode.storage.service.prefetch.ForkPopularity;
+import hex.multinode.storage.service.prefetch.ForkPrefetcher;
+import hex.multinode.storage.service.search.NodeTextIndex;
+import hex.multinode.storage.service.snapshot.StorySnapshotStore;
+import hex.multinode.storage.service.writebehind.NodeEditBuffer;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
 public class MultiNodeManagerImpl implements NodeManager<MultiNode> {
+
     private final NodeDBRepository nodeRepository;
     private final LinkDBRepository linkRepository;
+    private final StoryGraphIndex graphIndex;
+    private final StoryGraphAnalytics graphAnalytics;
+    private final NodeCache nodeCache;
+    private final NodeTextIndex textIndex;
+    private final StorySnapshotStore snapshotStore;
+    private final NodeEditBuffer editBuffer;
+    private final ContentStore contentStore;
+    private final ForkPopularity forkPopularity;
+    private final ForkPrefetcher forkPrefetcher;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
 
     @Autowired
     public MultiNodeManagerImpl(NodeDBRepository nodeRepository,
-                                LinkDBRepository linkRepository) {
+                                LinkDBRepository linkRepository,
+                                StoryGraphIndex graphIndex,
+                                StoryGraphAnalytics graphAnalytics,
+                                NodeCache nodeCache,
+                                NodeTextIndex textIndex,
+                                StorySnapshotStore snapshotStore,
+                                NodeEditBuffer editBuffer,
+                                ContentStore contentStore,
+                                ForkPopularity forkPopularity,
+                                ForkPrefetcher forkPrefetcher,
+                                ApplicationEventPublisher eventPublisher,
+                                EntityManager entityManager,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize) {
         this.nodeRepository = nodeRepository;
         this.linkRepository = linkRepository;
+        this.graphIndex = graphIndex;
+        this.graphAnalytics = graphAnalytics;
+        this.nodeCache = nodeCache;
+        this.textIndex = textIndex;
+        this.snapshotStore = snapshotStore;
+        this.editBuffer = editBuffer;
+        this.contentStore = contentStore;
+        this.forkPopularity = forkPopularity;
+        this.forkPrefetcher = forkPrefetcher;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
     }
 
     @Override
@@ -38,13 +122,19 @@ public class MultiNodeManagerImpl implements NodeManager<MultiNode> {
     @NodeToLog
     @Transactional
     public MultiNode save(MultiNode node) {
-        return nodeRepository.save(node);
+        boolean isNew = node.getId() == null;
+        contentStore.attach(node.getContent());
+        MultiNode savedNode = nodeRepository.save(node);
+        eventPublisher.publishEvent(isNew
+                ? NodeEvent.created(savedNode.getId())
+                : NodeEvent.updated(savedNode.getId()));
+        return savedNode;
     }
 
     @Override
     @Transactional(readOnly = true)
     public Optional<MultiNode> findById(String id) {
-        return nodeRepository.findById(UUID.fromString(id));
+        return nodeRepository.findById(UUID.fromString(id)).map(MultiNodeManagerImpl::withContent);
     }
 
     @Override
@@ -53,14 +143,297 @@ public class MultiNodeManagerImpl implements NodeManager<MultiNode> {
         return nodeRepository.findNodesByTitle(title);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<NodeView> findNodesByTitle(String title, String afterId, int limit, NodeFields fields) {
+        checkPageSize(limit);
+        boolean withText = fields.has(NodeField.TEXT);
+        if (afterId == null || afterId.isBlank()) {
+            return withText
+                    ? nodeRepository.findViewsByTitle(title, Limit.of(limit))
+                    : nodeRepository.findHeadersByTitle(title, Limit.of(limit));
+        }
+        return withText
+                ? nodeRepository.findViewsByTitleAfter(title, UUID.fromString(afterId), Limit.of(limit))
+                : nodeRepository.findHeadersByTitleAfter(title, UUID.fromString(afterId), Limit.of(limit));
+    }
+
+    @Override
+    public List<NodeView> findViewsByTitle(String title, NodeFields fields) {
+        return fields.has(NodeField.TEXT)
+                ? nodeRepository.findViewsByTitle(title)
+                : nodeRepository.findHeadersByTitle(title);
+    }
+
+    @Override
+    public TitlePage searchByTitle(String title, TitleMatch match, String pageToken, int limit, NodeFields fields) {
+        checkPageSize(limit);
+        TitleCursor after = pageToken == null || pageToken.isBlank() ? null : decodePageToken(pageToken);
+        List<NodeView> nodes = nodeRepository.searchByTitle(title, match, after, limit, fields.has(NodeField.TEXT));
+        if (nodes.size() < limit) {
+            return new TitlePage(nodes, null);
+        }
+        NodeView last = nodes.get(nodes.size() - 1);
+        String key = match.ignoreCase() ? MultiNode.titleKey(last.title()) : last.title();
+        return new TitlePage(nodes, encodePageToken(new TitleCursor(key, last.id())));
+    }
+
+    private static void checkPageSize(int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be 1.." + MAX_PAGE_SIZE + ": " + limit);
+        }
+    }
+
+    /**
+     * Opaque token: base64url of the id (36 chars) followed by the sort key
+     */
+    private static String encodePageToken(TitleCursor cursor) {
+        byte[] token = (cursor.id() + cursor.key()).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token);
+    }
+
+    private static TitleCursor decodePageToken(String pageToken) {
+        try {
+            String token = new String(Base64.getUrlDecoder().decode(pageToken), StandardCharsets.UTF_8);
+            return new TitleCursor(token.substring(36), UUID.fromString(token.substring(0, 36)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid page token: " + pageToken, e);
+        }
+    }
+
+    @Override
+    public TextSearchPage search(String query, String pageToken, int limit) {
+        checkPageSize(limit);
+        TextSearchHit after = pageToken == null || pageToken.isBlank() ? null : decodeSearchToken(pageToken);
+        List<TextSearchHit> hits = textIndex.search(query, after, limit);
+        if (hits.size() < limit) {
+            return new TextSearchPage(hits, null);
+        }
+        return new TextSearchPage(hits, encodeSearchToken(hits.get(hits.size() - 1)));
+    }
+
+    /**
+     * Opaque token: base64url of the score bits and the id of the last hit
+     */
+    private static String encodeSearchToken(TextSearchHit last) {
+        ByteBuffer token = ByteBuffer.allocate(Float.BYTES + 2 * Long.BYTES)
+                .putFloat(last.score())
+                .putLong(last.id().getMostSignificantBits())
+                .putLong(last.id().getLeastSignificantBits());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.array());
+    }
+
+    private static TextSearchHit decodeSearchToken(String pageToken) {
+        try {
+            ByteBuffer token = ByteBuffer.wrap(Base64.getUrlDecoder().decode(pageToken));
+            if (token.remaining() != Float.BYTES + 2 * Long.BYTES) {
+                throw new IllegalArgumentException("Unexpected token length");
+            }
+            float score = token.getFloat();
+            return new TextSearchHit(new UUID(token.getLong(), token.getLong()), null, score);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page token: " + pageToken, e);
+        }
+    }
+
+    @Override
+    public Optional<NodeSnapshot> findSnapshotById(String id) {
+        UUID nodeId = UUID.fromString(id);
+        Optional<NodeSnapshot> node = nodeCache.get(nodeId).map(this::withPendingEdit);
+        node.ifPresent(found -> forkPrefetcher.prefetchForks(nodeId));
+        return node;
+    }
+
+    @Override
+    public List<LinkDTO> findForks(String id) {
+        return graphIndex.forksOf(UUID.fromString(id));
+    }
+
+    @Override
+    public List<LinkDTO> findRoots(String id) {
+        return graphIndex.rootsOf(UUID.fromString(id));
+    }
+
+    @Override
+    public StoryPathDTO walk(String startId, List<String> steps) {
+        UUID nodeId = UUID.fromString(startId);
+        List<UUID> nodeIds = new ArrayList<>(steps.size() + 1);
+        List<LinkDTO> choices = new ArrayList<>(steps.size());
+        nodeIds.add(nodeId);
+        for (String step : steps) {
+            LinkDTO choice = chooseFork(graphIndex.forksOf(nodeId), step, nodeId);
+            choices.add(choice);
+            nodeId = choice.childNodeId();
+            nodeIds.add(nodeId);
+        }
+
+        Map<UUID, NodeSnapshot> snapshots = nodeCache.getAll(nodeIds);
+        List<NodeSnapshot> nodes = new ArrayList<>(nodeIds.size());
+        for (UUID id : nodeIds) {
+            NodeSnapshot node = snapshots.get(id);
+            if (node == null) {
+                throw new NoSuchElementException("Node not found: " + id);
+            }
+            nodes.add(withPendingEdit(node));
+        }
+        choices.forEach(choice -> forkPopularity.record(choice.id()));
+        forkPrefetcher.prefetchForks(nodeId);
+        return new StoryPathDTO(nodes, choices);
+    }
+
+    @Override
+    public List<NodeSnapshot> findForkSnapshots(String id, int limit) {
+        List<UUID> childIds = graphIndex.forksOf(UUID.fromString(id)).stream()
+                .map(LinkDTO::childNodeId)
+                .distinct()
+                .limit(limit)
+                .toList();
+        if (childIds.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, NodeSnapshot> snapshots = nodeCache.getAll(childIds);
+        List<NodeSnapshot> nodes = new ArrayList<>(childIds.size());
+        for (UUID childId : childIds) {
+            NodeSnapshot node = snapshots.get(childId);
+            if (node != null) {
+                nodes.add(withPendingEdit(node));
+            }
+        }
+        return nodes;
+    }
+
+    @Override
+    public List<ForkPopularityDTO> findForkPopularity(String id) {
+        return forkPrefetcher.rank(graphIndex.forksOf(UUID.fromString(id))).stream()
+                .map(link -> new ForkPopularityDTO(link.id(), link.childNodeId(), link.choiceText(),
+                        forkPopularity.traversals(link.id())))
+                .toList();
+    }
+
+    @Override
+    public StoryStatsDTO analyzeStory(String rootId) {
+        return graphAnalytics.analyze(UUID.fromString(rootId));
+    }
+
+    @Override
+    public List<UUID> findUnreachable() {
+        return graphAnalytics.findUnreachable();
+    }
+
+    private static LinkDTO chooseFork(List<LinkDTO> forks, String step, UUID nodeId) {
+        if (!step.isEmpty() && step.chars().allMatch(Character::isDigit)) {
+            int index = Integer.parseInt(step);
+            if (index < forks.size()) {
+                return forks.get(index);
+            }
+        } else {
+            UUID linkId = UUID.fromString(step);
+            for (LinkDTO fork : forks) {
+                if (fork.id().equals(linkId)) {
+                    return fork;
+                }
+            }
+        }
+        throw new IllegalArgumentException("No choice " + step + " from node " + nodeId);
+    }
+
+    /**
+     * Buffered edits are journaled outside of a transaction, so the fsync does not hold a connection.
+     * Edits breaking the column limits are rejected on both paths, a buffered one would fail its flush.
+     */
     @Override
     @NodeToLog
-    @Transactional
     public MultiNode update(NodeDTO nodeDTO) {
+        MultiNode.checkEdit(nodeDTO.title(), nodeDTO.contentText());
+        if (nodeDTO.version() == null && editBuffer.isEnabled()) {
+            NodeView view = nodeRepository.findViewById(UUID.fromString(nodeDTO.id())).orElseThrow();
+            editBuffer.submit(nodeDTO);
+            return acceptedEdit(view, nodeDTO);
+        }
+        return transactionTemplate.execute(status -> updateNow(nodeDTO));
+    }
+
+    private MultiNode updateNow(NodeDTO nodeDTO) {
         MultiNode node = findById(nodeDTO.id()).orElseThrow();
+        if (!hasExpectedVersion(nodeDTO, node)) {
+            throw new OptimisticLockingFailureException(editBuffer.hasPending(node.getId())
+                    ? "Node " + node.getId() + " has unflushed edits, expected version " + nodeDTO.version()
+                    : "Node " + node.getId() + " has version " + node.getVersion() + ", expected " + nodeDTO.version());
+        }
+        applyEdit(nodeDTO, node);
+        return save(node);
+    }
+
+    @Override
+    @Transactional
+    public List<MultiNode> updateAll(Collection<NodeDTO> nodeDTOs) {
+        Map<UUID, NodeDTO> edits = new LinkedHashMap<>();
+        for (NodeDTO nodeDTO : nodeDTOs) {
+            edits.put(UUID.fromString(nodeDTO.id()), nodeDTO);
+        }
+        List<MultiNode> nodes = new ArrayList<>(edits.size());
+        for (MultiNode node : nodeRepository.findNodesByIdIn(edits.keySet())) {
+            NodeDTO nodeDTO = edits.get(node.getId());
+            if (hasExpectedVersion(nodeDTO, node)) {
+                applyEdit(nodeDTO, node);
+                eventPublisher.publishEvent(NodeEvent.updated(node.getId()));
+                nodes.add(node);
+            }
+        }
+        return nodeRepository.saveAll(nodes);
+    }
+
+    /**
+     * Buffered edits are newer than any committed version, so a conditional edit of such a node is stale
+     */
+    private boolean hasExpectedVersion(NodeDTO nodeDTO, MultiNode node) {
+        return nodeDTO.version() == null
+                || nodeDTO.version() == node.getVersion() && !editBuffer.hasPending(node.getId());
+    }
+
+    /**
+     * Node as it will be written by the buffer flush, with the last committed version
+     */
+    private static MultiNode acceptedEdit(NodeView view, NodeDTO nodeDTO) {
+        MultiNode node = new MultiNode(nodeDTO.title(), new MultiContent(nodeDTO.contentText()));
+        node.setId(view.id());
+        node.setDateCreated(view.dateCreated());
+        node.setDateUpdated(LocalDateTime.now());
+        node.setVersion(view.version());
+        return node;
+    }
+
+    /**
+     * Nodes from the entity cache come with a lazy content even if the entity graph asks for it
+     */
+    private static MultiNode withContent(MultiNode node) {
+        Hibernate.initialize(node.getContent());
+        if (node.getContent() != null) {
+            Hibernate.initialize(node.getContent().getBlob());
+        }
+        return node;
+    }
+
+    private NodeSnapshot withPendingEdit(NodeSnapshot node) {
+        return editBuffer.pending(node.id())
+                .map(edit -> new NodeSnapshot(node.id(), edit.title(), edit.contentText(),
+                        node.dateCreated(), node.dateUpdated(), node.version(), node.forks()))
+                .orElse(node);
+    }
+
+    /**
+     * A changed title or a new content row make the node dirty and bump its version on flush;
+     * a content-only edit touches the update date, so the node version covers its content
+     */
+    private void applyEdit(NodeDTO nodeDTO, MultiNode node) {
+        boolean contentOnly = Objects.equals(node.getTitle(), nodeDTO.title())
+                && node.getContent() != null
+                && !Objects.equals(node.getContent().getText(), nodeDTO.contentText());
         node.setTitle(nodeDTO.title());
         updateContent(nodeDTO, node);
-        return save(node);
+        if (contentOnly) {
+            node.setDateUpdated(LocalDateTime.now());
+        }
     }
 
     @Override
@@ -69,6 +442,11 @@ public class MultiNodeManagerImpl implements NodeManager<MultiNode> {
     public MultiNode deleteById(String id) {
         MultiNode node = findById(id).orElseThrow();
         nodeRepository.deleteById(node.getId());
+        eventPublisher.publishEvent(NodeEvent.deleted(node.getId()));
+        // Parents lose a fork
+        for (LinkDTO root : graphIndex.rootsOrEmpty(node.getId())) {
+            eventPublisher.publishEvent(NodeEvent.updated(root.parentNodeId()));
+        }
         return node;
     }
 
@@ -76,7 +454,7 @@ public class MultiNodeManagerImpl implements NodeManager<MultiNode> {
     @Transactional
     public MultiNode fork(String fromNodeId, NodeDTO toNodeDTO, String answer) {
         MultiNode childNode = saveNewNodeFromDTO(toNodeDTO);
-        MultiNode parentNode = nodeRepository.findById(UUID.fromString(fromNodeId)).orElseThrow();
+        MultiNode parentNode = findById(fromNodeId).orElseThrow();
         linkNodes(parentNode, childNode, answer);
         return parentNode;
     }
@@ -84,33 +462,116 @@ public class MultiNodeManagerImpl implements NodeManager<MultiNode> {
     @Override
     @Transactional
     public MultiNode fork(String fromNodeId, String toNodeId, String answer) {
-        MultiNode parentNode = nodeRepository.findById(UUID.fromString(fromNodeId)).orElseThrow();
-        MultiNode childNode = nodeRepository.findById(UUID.fromString(toNodeId)).orElseThrow();
+        MultiNode parentNode = findById(fromNodeId).orElseThrow();
+        MultiNode childNode = nodeRepository.findNodeById(UUID.fromString(toNodeId)).orElseThrow();
         linkNodes(parentNode, childNode, answer);
         return parentNode;
     }
 
+    @Override
+    @Transactional
+    public Map<String, UUID> importGraph(GraphImportDTO graph) {
+        Set<String> tempIds = new HashSet<>();
+        for (GraphImportDTO.Node nodeDTO : graph.nodes()) {
+            if (!tempIds.add(nodeDTO.tempId())) {
+                throw new IllegalArgumentException("Duplicate temp id: " + nodeDTO.tempId());
+            }
+        }
+        checkExistingNodes(graph.links(), tempIds);
+
+        Map<String, UUID> ids = new LinkedHashMap<>();
+        int inserts = 0;
+        for (GraphImportDTO.Node nodeDTO : graph.nodes()) {
+            MultiNode node = new MultiNode(nodeDTO.title(), new MultiContent(nodeDTO.contentText()));
+            contentStore.attach(node.getContent());
+            entityManager.persist(node);
+            ids.put(nodeDTO.tempId(), node.getId());
+            flushIfBatchFull(++inserts);
+        }
+        List<LinkDTO> links = new ArrayList<>(graph.links().size());
+        for (GraphImportDTO.Link linkDTO : graph.links()) {
+            UUID parentId = resolveNodeRef(linkDTO.from(), ids);
+            UUID childId = resolveNodeRef(linkDTO.to(), ids);
+            MultiLink link = new MultiLink(
+                    entityManager.getReference(MultiNode.class, parentId),
+                    entityManager.getReference(MultiNode.class, childId),
+                    linkDTO.choiceText());
+            entityManager.persist(link);
+            links.add(new LinkDTO(link.getId(), parentId, childId, linkDTO.choiceText()));
+            flushIfBatchFull(++inserts);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        ids.values().forEach(id -> eventPublisher.publishEvent(NodeEvent.created(id)));
+        links.forEach(link -> eventPublisher.publishEvent(NodeEvent.forked(link)));
+        return ids;
+    }
+
+    @Override
+    public SnapshotInfo exportSnapshot() {
+        return snapshotStore.export();
+    }
+
+    private void checkExistingNodes(List<GraphImportDTO.Link> links, Set<String> tempIds) {
+        Set<UUID> externalIds = new HashSet<>();
+        for (GraphImportDTO.Link link : links) {
+            for (String ref : List.of(link.from(), link.to())) {
+                if (!tempIds.contains(ref)) {
+                    externalIds.add(UUID.fromString(ref));
+                }
+            }
+        }
+        if (externalIds.isEmpty()) {
+            return;
+        }
+        externalIds.removeAll(nodeRepository.findExistingIds(externalIds));
+        if (!externalIds.isEmpty()) {
+            throw new NoSuchElementException("Nodes not found: " + externalIds);
+        }
+    }
+
+    private static UUID resolveNodeRef(String ref, Map<String, UUID> ids) {
+        UUID id = ids.get(ref);
+        return id != null ? id : UUID.fromString(ref);
+    }
+
+    private void flushIfBatchFull(int inserts) {
+        if (inserts % batchSize == 0) {
+            entityManager.flush();
+            entityManager.clear();
+        }
+    }
+
     private void updateContent(NodeDTO nodeDTO, MultiNode node) {
         String text = nodeDTO.contentText();
         MultiContent content = node.getContent();
         if (content == null) {
             content = new MultiContent();
         }
-        content.setText(text);
+        if (!Objects.equals(content.getText(), text)) {
+            content.setText(text);
+            contentStore.attach(content);
+        }
         node.setContent(content);
     }
 
     private MultiNode saveNewNodeFromDTO(NodeDTO nodeDTO) {
         MultiNode node = new MultiNode(nodeDTO.title());
         updateContent(nodeDTO, node);
-        return nodeRepository.save(node);
+        MultiNode savedNode = nodeRepository.save(node);
+        eventPublisher.publishEvent(NodeEvent.created(savedNode.getId()));
+        return savedNode;
     }
 
     private MultiLink linkNodes(MultiNode parentNode, MultiNode childNode, String answer) {
         return addLink(parentNode, childNode, answer);
     }
     private MultiLink addLink(MultiNode parentNode, MultiNode childNode, String answer) {
-        return linkRepository.save(new MultiLink(parentNode, childNode, answer));
+        MultiLink link = linkRepository.save(new MultiLink(parentNode, childNode, answer));
+        eventPublisher.publishEvent(NodeEvent.forked(
+                new LinkDTO(link.getId(), parentNode.getId(), childNode.getId(), answer)));
+        return link;
     }
 
 }
@@ -1,9 +1,24 @@
 package hex.multinode.storage.service;
 
+import hex.multinode.storage.model.dto.ForkPopularityDTO;
+import hex.multinode.storage.model.dto.GraphImportDTO;
+import hex.multinode.storage.model.dto.LinkDTO;
 import hex.multinode.storage.model.dto.NodeDTO;
+import hex.multinode.storage.model.dto.NodeFields;
+import hex.multinode.storage.model.dto.NodeSnapshot;
+import hex.multinode.storage.model.dto.NodeView;
+import hex.multinode.storage.model.dto.SnapshotInfo;
+import hex.multinode.storage.model.dto.StoryPathDTO;
+import hex.multinode.storage.model.dto.StoryStatsDTO;
+import hex.multinode.storage.model.dto.TextSearchPage;
+import hex.multinode.storage.model.dto.TitleMatch;
+import hex.multinode.storage.model.dto.TitlePage;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 
 /**
  * Эмулятор "Нелинейного сюжета"
@@ -11,19 +26,139 @@ import java.util.Optional;
  */
 public interface NodeManager<N> {
 
+    /**
+     * Наибольший размер страницы поиска по заголовку и по тексту
+     */
+    int MAX_PAGE_SIZE = 1000;
+
     N save(NodeDTO node);
 
     N save(N node);
 
     Optional<N> findById(String id);
 
+    /**
+     * Снимок ноды с вариантами выбора из кэша
+     */
+    Optional<NodeSnapshot> findSnapshotById(String id);
+
     List<N> findNodesByTitle(String title);
 
+    /**
+     * Страница поиска по заголовку, упорядоченная по id (keyset)
+     * @param afterId последний id предыдущей страницы, null - первая страница
+     * @param limit 1..{@link #MAX_PAGE_SIZE}
+     */
+    default List<NodeView> findNodesByTitle(String title, String afterId, int limit) {
+        return findNodesByTitle(title, afterId, limit, NodeFields.ALL);
+    }
+
+    /**
+     * @param fields без текста контент не читается, text в ответе null
+     */
+    List<NodeView> findNodesByTitle(String title, String afterId, int limit, NodeFields fields);
+
+    /**
+     * Поиск по заголовку одним запросом без загрузки сущностей
+     */
+    default List<NodeView> findViewsByTitle(String title) {
+        return findViewsByTitle(title, NodeFields.ALL);
+    }
+
+    /**
+     * @param fields без текста контент не читается, text в ответе null
+     */
+    List<NodeView> findViewsByTitle(String title, NodeFields fields);
+
+    /**
+     * Поиск по индексу заголовка с keyset-пагинацией по (заголовок, id)
+     * @param pageToken nextPageToken предыдущей страницы, null - первая страница
+     */
+    default TitlePage searchByTitle(String title, TitleMatch match, String pageToken, int limit) {
+        return searchByTitle(title, match, pageToken, limit, NodeFields.ALL);
+    }
+
+    /**
+     * @param fields без текста контент не читается, text в ответе null
+     */
+    TitlePage searchByTitle(String title, TitleMatch match, String pageToken, int limit, NodeFields fields);
+
+    /**
+     * Полнотекстовый поиск по заголовку и тексту, по убыванию релевантности.
+     * Индекс обновляется асинхронно, изменения видны с задержкой до storage.search.refresh-interval
+     * @param query слова (все обязательны), "фразы", префикс*, -исключение, a | b
+     * @param pageToken nextPageToken предыдущей страницы, null - первая страница
+     */
+    TextSearchPage search(String query, String pageToken, int limit);
+
+    /**
+     * Варианты выбора из ноды, читаются из индекса графа без обращения к БД
+     */
+    List<LinkDTO> findForks(String id);
+
+    List<LinkDTO> findRoots(String id);
+
+    /**
+     * Проход по сюжету за один вызов
+     * @param steps на каждом шаге - номер варианта выбора (с 0) или id связи
+     */
+    StoryPathDTO walk(String startId, List<String> steps);
+
+    /**
+     * Снимки нод, в которые ведут варианты выбора, в порядке вариантов; промахи кэша читаются одним запросом
+     * @param limit не больше стольких нод
+     */
+    List<NodeSnapshot> findForkSnapshots(String id, int limit);
+
+    /**
+     * Варианты выбора ноды, начиная с самых частых, с числом переходов по каждому
+     */
+    List<ForkPopularityDTO> findForkPopularity(String id);
+
+    /**
+     * Достижимость, концовки и циклы сюжета от стартовой ноды
+     */
+    StoryStatsDTO analyzeStory(String rootId);
+
+    /**
+     * Ноды, недостижимые ни из одной стартовой ноды (без входящих связей)
+     */
+    List<UUID> findUnreachable();
+
+    /**
+     * В режиме write-behind правка без версии подтверждается после записи в локальный журнал
+     * и попадает в БД пакетом позже; чтение по id сразу видит новое значение, а поиск по заголовку
+     * и по тексту - только после записи пакета
+     * @throws org.springframework.dao.OptimisticLockingFailureException версия ноды не равна node.version,
+     * у ноды есть незаписанные правки, либо нода изменена параллельно до фиксации транзакции
+     */
     N update(NodeDTO node);
 
+    /**
+     * Обновляет пачку нод одной транзакцией; не найденные ноды и ноды с версией,
+     * отличной от ожидаемой, пропускаются
+     * @return обновленные ноды
+     * @throws org.springframework.dao.OptimisticLockingFailureException нода изменена параллельно,
+     * транзакция откатывается целиком
+     */
+    List<N> updateAll(Collection<NodeDTO> nodes);
+
     N deleteById(String id);
 
     N fork(String fromNodeId, NodeDTO toNodeDTO, String answer);
 
     N fork(String fromNodeId, String toNodeId, String answer);
+
+    /**
+     * Сохраняет подграф одной транзакцией пакетными вставками
+     * @return id созданных нод по временным id клиента
+     */
+    Map<String, UUID> importGraph(GraphImportDTO graph);
+
+    /**
+     * Выгружает граф сюжетов в файл снимка (storage.snapshot.file), с которого стартуют индексы
+     * и кэш при следующем запуске
+     * @throws IllegalStateException файл снимка не настроен
+     */
+    SnapshotInfo exportSnapshot();
 }
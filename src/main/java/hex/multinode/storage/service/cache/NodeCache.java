@@ -0,0 +1,158 @@
+package hex.multinode.storage.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import hex.multinode.storage.model.dto.NodeSnapshot;
+import hex.multinode.storage.model.dto.NodeView;
+import hex.multinode.storage.repository.db.NodeDBRepository;
+import hex.multinode.storage.service.event.NodeEvent;
+import hex.multinode.storage.service.graph.StoryGraphIndex;
+import hex.multinode.storage.service.snapshot.StorySnapshotStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded read-through cache of node snapshots (W-TinyLFU eviction, optional TTL).
+ * Misses are read from the story snapshot while the node is unchanged since startup, then from the DB.
+ * Entries are invalidated after commit of every change of the node or its forks.
+ * Hit/miss/eviction counters are published as "cache.*" metrics with cache=nodes.
+ */
+@Component
+public class NodeCache {
+
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final NodeDBRepository nodeRepository;
+    private final StoryGraphIndex graphIndex;
+    private final StorySnapshotStore snapshotStore;
+    private final Cache<UUID, NodeSnapshot> cache;
+    /**
+     * Invalidations per stripe of ids. A bulk load reads them before the DB read
+     * and drops a snapshot whose stripe was invalidated meanwhile, so it does not stay cached stale.
+     */
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    @Autowired
+    public NodeCache(NodeDBRepository nodeRepository,
+                     StoryGraphIndex graphIndex,
+                     StorySnapshotStore snapshotStore,
+                     MeterRegistry meterRegistry,
+                     @Value("${storage.cache.node.maximum-size:100000}") long maximumSize,
+                     @Value("${storage.cache.node.expire-after-write:0s}") Duration expireAfterWrite) {
+        this.nodeRepository = nodeRepository;
+        this.graphIndex = graphIndex;
+        this.snapshotStore = snapshotStore;
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats();
+        if (!expireAfterWrite.isZero()) {
+            builder.expireAfterWrite(expireAfterWrite);
+        }
+        this.cache = CaffeineCacheMetrics.monitor(meterRegistry, builder.build(), "nodes");
+    }
+
+    public Optional<NodeSnapshot> get(UUID id) {
+        return Optional.ofNullable(cache.get(id, this::load));
+    }
+
+    /**
+     * Loads all misses with one query. Unlike {@link #get}, the load is not atomic with the entry,
+     * so a snapshot invalidated during the DB read is returned but not kept.
+     * @return snapshots of the existing nodes
+     */
+    public Map<UUID, NodeSnapshot> getAll(Collection<UUID> ids) {
+        Map<UUID, NodeSnapshot> snapshots = new HashMap<>(cache.getAllPresent(ids));
+        List<UUID> misses = ids.stream().filter(id -> !snapshots.containsKey(id)).distinct().toList();
+        if (misses.isEmpty()) {
+            return snapshots;
+        }
+        long[] seen = new long[misses.size()];
+        for (int i = 0; i < seen.length; i++) {
+            seen[i] = generations.get(stripe(misses.get(i)));
+        }
+        Map<UUID, NodeSnapshot> loaded = loadAll(misses);
+        for (int i = 0; i < seen.length; i++) {
+            UUID id = misses.get(i);
+            NodeSnapshot node = loaded.get(id);
+            if (node == null) {
+                continue;
+            }
+            NodeSnapshot cached = cache.asMap().putIfAbsent(id, node);
+            if (cached != null) {
+                node = cached;
+            } else if (generations.get(stripe(id)) != seen[i]) {
+                // checked after the put: an invalidation after the check removes the entry itself
+                cache.asMap().remove(id, node);
+            }
+            snapshots.put(id, node);
+        }
+        return snapshots;
+    }
+
+    /**
+     * Checks for an entry without loading it or counting a hit or miss
+     */
+    public boolean contains(UUID id) {
+        return cache.asMap().containsKey(id);
+    }
+
+    public void invalidate(UUID id) {
+        generations.incrementAndGet(stripe(id));
+        cache.invalidate(id);
+    }
+
+    /**
+     * Runs after the graph index has applied the change
+     */
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNodeEvent(NodeEvent event) {
+        invalidate(event.nodeId());
+    }
+
+    private NodeSnapshot load(UUID id) {
+        return snapshotStore.findView(id)
+                .or(() -> nodeRepository.findViewById(id))
+                .map(this::toSnapshot)
+                .orElse(null);
+    }
+
+    private Map<UUID, NodeSnapshot> loadAll(List<UUID> ids) {
+        Map<UUID, NodeSnapshot> snapshots = new HashMap<>();
+        List<UUID> misses = new ArrayList<>();
+        for (UUID id : ids) {
+            snapshotStore.findView(id).ifPresentOrElse(node -> snapshots.put(id, toSnapshot(node)), () -> misses.add(id));
+        }
+        if (!misses.isEmpty()) {
+            for (NodeView node : nodeRepository.findViewsByIdIn(misses)) {
+                snapshots.put(node.id(), toSnapshot(node));
+            }
+        }
+        return snapshots;
+    }
+
+    private static int stripe(UUID id) {
+        return (id.hashCode() & Integer.MAX_VALUE) % GENERATION_STRIPES;
+    }
+
+    private NodeSnapshot toSnapshot(NodeView node) {
+        return new NodeSnapshot(node.id(), node.title(), node.text(), node.dateCreated(), node.dateUpdated(),
+                node.version(), graphIndex.forksOrEmpty(node.id()));
+    }
+}
@@ -0,0 +1,122 @@
+package hex.multinode.storage.service.content;
+
+import hex.multinode.storage.model.data.ContentBlob;
+import hex.multinode.storage.model.data.MultiContent;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Content-addressed store of node texts longer than storage.content.inline-limit.
+ * Nodes with equal texts share one blob; blobs are immutable and are dropped
+ * by {@link #purge} every storage.content.purge-interval once no content refers to them.
+ */
+@Component
+@Slf4j
+public class ContentStore {
+
+    private static final String MERGE_BLOB =
+            "merge into content_blob (hash, codec, raw_length, data) key (hash) values (?, ?, ?, ?)";
+
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final int inlineLimit;
+    private final ScheduledExecutorService purger;
+
+    @Autowired
+    public ContentStore(EntityManager entityManager,
+                        JdbcTemplate jdbcTemplate,
+                        @Value("${storage.content.inline-limit:256}") int inlineLimit,
+                        @Value("${storage.content.purge-interval:10m}") Duration purgeInterval) {
+        if (inlineLimit > 1000) {
+            throw new IllegalArgumentException("storage.content.inline-limit exceeds the text column: " + inlineLimit);
+        }
+        this.entityManager = entityManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.inlineLimit = inlineLimit;
+        this.purger = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "content-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = purgeInterval.toMillis();
+        purger.scheduleWithFixedDelay(this::purgeQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Moves a long text of the content to its blob, storing the blob if it is new.
+     * Called by the writers before the content is flushed. The blob is always merged:
+     * the entity cache may still hold a blob deleted by {@link #purge}.
+     */
+    public void attach(MultiContent content) {
+        if (content == null || content.getBlob() != null) {
+            return;
+        }
+        String text = content.getText();
+        if (isInline(text)) {
+            return;
+        }
+        ContentBlob blob = ContentBlob.of(text);
+        mergeAll(List.of(blob));
+        content.setBlob(entityManager.getReference(ContentBlob.class, blob.getHash()), text);
+    }
+
+    /**
+     * @return blob for the text or null if it is stored in the content row
+     */
+    public ContentBlob blobOf(String text) {
+        return isInline(text) ? null : ContentBlob.of(text);
+    }
+
+    /**
+     * Stores the blobs that are not stored yet; concurrent writers of one text both succeed
+     */
+    public void mergeAll(Collection<ContentBlob> blobs) {
+        jdbcTemplate.batchUpdate(MERGE_BLOB, blobs.stream()
+                .map(blob -> new Object[]{blob.getHash(), blob.getCodec().name(), blob.getRawLength(), blob.getData()})
+                .toList());
+    }
+
+    /**
+     * Deletes blobs no content refers to any more. Blobs stored by open transactions
+     * are not visible to the purge; a write reusing a blob purged meanwhile fails on the foreign key.
+     * @return blobs deleted
+     */
+    public int purge() {
+        int deleted = jdbcTemplate.update("delete from content_blob b "
+                + "where not exists (select 1 from multi_content c where c.text_hash = b.hash)");
+        if (deleted > 0) {
+            entityManager.getEntityManagerFactory().getCache().evict(ContentBlob.class);
+            log.info("Content store purged {} unreferenced blobs", deleted);
+        }
+        return deleted;
+    }
+
+    @PreDestroy
+    public void close() {
+        purger.shutdownNow();
+    }
+
+    private void purgeQuietly() {
+        try {
+            purge();
+        } catch (RuntimeException e) {
+            log.warn("Content blob purge failed", e);
+        }
+    }
+
+    private boolean isInline(String text) {
+        return text == null || text.length() <= inlineLimit;
+    }
+}
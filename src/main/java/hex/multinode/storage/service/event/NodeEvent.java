@@ -0,0 +1,33 @@
+package hex.multinode.storage.service.event;
+
+import hex.multinode.storage.model.dto.LinkDTO;
+
+import java.util.UUID;
+
+/**
+ * Изменение графа, публикуется из транзакции {@link hex.multinode.storage.service.NodeManager}
+ * @param nodeId измененная нода, для FORKED - родительская
+ * @param link новая связь, только для FORKED
+ */
+public record NodeEvent(Type type, UUID nodeId, LinkDTO link) {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED, FORKED
+    }
+
+    public static NodeEvent created(UUID nodeId) {
+        return new NodeEvent(Type.CREATED, nodeId, null);
+    }
+
+    public static NodeEvent updated(UUID nodeId) {
+        return new NodeEvent(Type.UPDATED, nodeId, null);
+    }
+
+    public static NodeEvent deleted(UUID nodeId) {
+        return new NodeEvent(Type.DELETED, nodeId, null);
+    }
+
+    public static NodeEvent forked(LinkDTO link) {
+        return new NodeEvent(Type.FORKED, link.parentNodeId(), link);
+    }
+}
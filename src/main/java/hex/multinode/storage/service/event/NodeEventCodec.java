@@ -0,0 +1,96 @@
+package hex.multinode.storage.service.event;
+
+import hex.multinode.storage.model.dto.LinkDTO;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Binary form of {@link NodeEvent}s published to Kafka, big-endian:
+ * <pre>
+ * byte    format version (1)
+ * byte    type: 1 CREATED, 2 UPDATED, 3 DELETED, 4 FORKED
+ * 16      event id, UUIDv7 taken at commit - unique, but not a version: consumers deduplicate by id
+ * 16      node id (parent node for FORKED)
+ * FORKED only:
+ * 16      link id
+ * 16      child node id
+ * short   length of the choice text in UTF-8 bytes, then the bytes
+ * </pre>
+ */
+public final class NodeEventCodec {
+
+    public static final byte FORMAT_VERSION = 1;
+
+    private static final int HEADER_BYTES = 2 + 2 * Long.BYTES * 2;
+    private static final int LINK_BYTES = 2 * Long.BYTES * 2 + Short.BYTES;
+
+    /**
+     * Decoded event with its id
+     */
+    public record Envelope(UUID eventId, NodeEvent event) {
+    }
+
+    private NodeEventCodec() {
+    }
+
+    public static byte[] encode(UUID eventId, NodeEvent event) {
+        byte[] choiceText = event.type() == NodeEvent.Type.FORKED
+                ? event.link().choiceText().getBytes(StandardCharsets.UTF_8)
+                : null;
+        if (choiceText != null && choiceText.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Choice text is too long: " + choiceText.length + " bytes");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + (choiceText == null ? 0 : LINK_BYTES + choiceText.length));
+        buffer.put(FORMAT_VERSION).put((byte) (event.type().ordinal() + 1));
+        putUuid(buffer, eventId);
+        putUuid(buffer, event.nodeId());
+        if (choiceText != null) {
+            putUuid(buffer, event.link().id());
+            putUuid(buffer, event.link().childNodeId());
+            buffer.putShort((short) choiceText.length).put(choiceText);
+        }
+        return buffer.array();
+    }
+
+    public static Envelope decode(byte[] payload) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(payload);
+            byte version = buffer.get();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported node event format: " + version);
+            }
+            int type = buffer.get();
+            if (type < 1 || type > NodeEvent.Type.values().length) {
+                throw new IllegalArgumentException("Unknown node event type: " + type);
+            }
+            UUID eventId = getUuid(buffer);
+            UUID nodeId = getUuid(buffer);
+            NodeEvent event = switch (NodeEvent.Type.values()[type - 1]) {
+                case CREATED -> NodeEvent.created(nodeId);
+                case UPDATED -> NodeEvent.updated(nodeId);
+                case DELETED -> NodeEvent.deleted(nodeId);
+                case FORKED -> {
+                    UUID linkId = getUuid(buffer);
+                    UUID childId = getUuid(buffer);
+                    byte[] choiceText = new byte[buffer.getShort()];
+                    buffer.get(choiceText);
+                    yield NodeEvent.forked(new LinkDTO(linkId, nodeId, childId, new String(choiceText, StandardCharsets.UTF_8)));
+                }
+            };
+            return new Envelope(eventId, event);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated node event: " + payload.length + " bytes", e);
+        }
+    }
+
+    private static void putUuid(ByteBuffer buffer, UUID id) {
+        buffer.putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits());
+    }
+
+    private static UUID getUuid(ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
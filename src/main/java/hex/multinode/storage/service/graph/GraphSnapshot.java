@@ -0,0 +1,64 @@
+package hex.multinode.storage.service.graph;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Immutable CSR copy of the story graph: forks of node i are
+ * forkTargets[forkOffsets[i] .. forkOffsets[i + 1]), nodes are dense indexes into nodeIds.
+ */
+public final class GraphSnapshot {
+
+    private final UUID[] nodeIds;
+    private final Map<UUID, Integer> indexes;
+    private final int[] forkOffsets;
+    private final int[] forkTargets;
+    private final long version;
+
+    GraphSnapshot(UUID[] nodeIds, Map<UUID, Integer> indexes, int[] forkOffsets, int[] forkTargets, long version) {
+        this.nodeIds = nodeIds;
+        this.indexes = indexes;
+        this.forkOffsets = forkOffsets;
+        this.forkTargets = forkTargets;
+        this.version = version;
+    }
+
+    public int nodeCount() {
+        return nodeIds.length;
+    }
+
+    public UUID nodeId(int node) {
+        return nodeIds[node];
+    }
+
+    /**
+     * @return dense index of the node or -1
+     */
+    public int indexOf(UUID nodeId) {
+        Integer index = indexes.get(nodeId);
+        return index == null ? -1 : index;
+    }
+
+    public int forkStart(int node) {
+        return forkOffsets[node];
+    }
+
+    public int forkEnd(int node) {
+        return forkOffsets[node + 1];
+    }
+
+    public int forkTarget(int edge) {
+        return forkTargets[edge];
+    }
+
+    public int outDegree(int node) {
+        return forkOffsets[node + 1] - forkOffsets[node];
+    }
+
+    /**
+     * Changes with every structural change of the index
+     */
+    public long version() {
+        return version;
+    }
+}
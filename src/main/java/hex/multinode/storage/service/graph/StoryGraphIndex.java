@@ -0,0 +1,387 @@
+package hex.multinode.storage.service.graph;
+
+import hex.multinode.storage.model.dto.LinkDTO;
+import hex.multinode.storage.repository.db.LinkDBRepository;
+import hex.multinode.storage.repository.db.NodeDBRepository;
+import hex.multinode.storage.service.event.NodeEvent;
+import hex.multinode.storage.service.snapshot.StorySnapshot;
+import hex.multinode.storage.service.snapshot.StorySnapshotStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory adjacency of the story graph: node ids map to int slots,
+ * forks and roots of a slot are kept in primitive arrays of neighbour slots
+ * with link ids and choice texts held by reference.
+ * Built from the story snapshot or the DB on startup and kept current from {@link NodeEvent}s,
+ * so choice lookups never touch Hibernate.
+ */
+@Component
+@Slf4j
+public class StoryGraphIndex implements SmartInitializingSingleton {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final NodeDBRepository nodeRepository;
+    private final LinkDBRepository linkRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final StorySnapshotStore snapshotStore;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<UUID, Integer> slots = new HashMap<>();
+    private UUID[] nodeIds = new UUID[INITIAL_CAPACITY];
+    private Adjacency[] forks = new Adjacency[INITIAL_CAPACITY];
+    private Adjacency[] roots = new Adjacency[INITIAL_CAPACITY];
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int slotCount;
+    private int linkCount;
+    private long version;
+
+    @Autowired
+    public StoryGraphIndex(NodeDBRepository nodeRepository,
+                           LinkDBRepository linkRepository,
+                           TransactionTemplate transactionTemplate,
+                           StorySnapshotStore snapshotStore) {
+        this.nodeRepository = nodeRepository;
+        this.linkRepository = linkRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.snapshotStore = snapshotStore;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        long start = System.currentTimeMillis();
+        Optional<StorySnapshot> snapshot = snapshotStore.loaded();
+        if (snapshot.isPresent()) {
+            load(snapshot.get().nodeIds(), snapshot.get().links());
+        } else {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<UUID> ids = nodeRepository.streamAllIds();
+                     Stream<LinkDTO> links = linkRepository.streamAllLinks()) {
+                    load(ids, links);
+                }
+            });
+        }
+        log.info("Story graph index loaded from the {}: {} nodes, {} links in {} ms",
+                snapshot.isPresent() ? "snapshot" : "DB", nodeCount(), linkCount(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Runs before {@link hex.multinode.storage.service.cache.NodeCache#onNodeEvent}, so a snapshot
+     * reloaded after the invalidation already sees the new forks
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNodeEvent(NodeEvent event) {
+        switch (event.type()) {
+            case CREATED -> addNode(event.nodeId());
+            case DELETED -> removeNode(event.nodeId());
+            case FORKED -> addLink(event.link());
+            case UPDATED -> {
+            }
+        }
+    }
+
+    /**
+     * Replaces the whole index; links are expected in creation (UUIDv7) order
+     */
+    public void load(Stream<UUID> ids, Stream<LinkDTO> links) {
+        lock.writeLock().lock();
+        try {
+            slots.clear();
+            Arrays.fill(nodeIds, null);
+            Arrays.fill(forks, null);
+            Arrays.fill(roots, null);
+            freeCount = 0;
+            slotCount = 0;
+            linkCount = 0;
+            version++;
+            ids.forEach(this::slotOf);
+            links.forEach(this::link);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean contains(UUID nodeId) {
+        lock.readLock().lock();
+        try {
+            return slots.containsKey(nodeId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return choices from the node in creation order
+     */
+    public List<LinkDTO> forksOf(UUID nodeId) {
+        return neighbours(nodeId, true, false);
+    }
+
+    /**
+     * @return links leading to the node in creation order
+     */
+    public List<LinkDTO> rootsOf(UUID nodeId) {
+        return neighbours(nodeId, false, false);
+    }
+
+    public List<LinkDTO> forksOrEmpty(UUID nodeId) {
+        return neighbours(nodeId, true, true);
+    }
+
+    public List<LinkDTO> rootsOrEmpty(UUID nodeId) {
+        return neighbours(nodeId, false, true);
+    }
+
+    /**
+     * @return CSR copy of the forks for whole-graph computations
+     */
+    public GraphSnapshot snapshot() {
+        lock.readLock().lock();
+        try {
+            int nodeCount = slots.size();
+            int[] dense = new int[slotCount];
+            UUID[] ids = new UUID[nodeCount];
+            Map<UUID, Integer> indexes = new HashMap<>(slots.size() * 4 / 3 + 1);
+            int[] offsets = new int[nodeCount + 1];
+            int next = 0;
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (nodeIds[slot] == null) {
+                    dense[slot] = -1;
+                    continue;
+                }
+                dense[slot] = next;
+                ids[next] = nodeIds[slot];
+                indexes.put(nodeIds[slot], next);
+                offsets[next + 1] = offsets[next] + (forks[slot] == null ? 0 : forks[slot].size);
+                next++;
+            }
+            int[] targets = new int[offsets[nodeCount]];
+            for (int slot = 0; slot < slotCount; slot++) {
+                Adjacency nodeForks = forks[slot];
+                if (dense[slot] < 0 || nodeForks == null) {
+                    continue;
+                }
+                int offset = offsets[dense[slot]];
+                for (int i = 0; i < nodeForks.size; i++) {
+                    targets[offset + i] = dense[nodeForks.nodes[i]];
+                }
+            }
+            return new GraphSnapshot(ids, indexes, offsets, targets, version);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long version() {
+        lock.readLock().lock();
+        try {
+            return version;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int nodeCount() {
+        lock.readLock().lock();
+        try {
+            return slots.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int linkCount() {
+        lock.readLock().lock();
+        try {
+            return linkCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void addNode(UUID nodeId) {
+        lock.writeLock().lock();
+        try {
+            slotOf(nodeId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void addLink(LinkDTO link) {
+        lock.writeLock().lock();
+        try {
+            link(link);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the node together with all its forks and roots
+     */
+    public void removeNode(UUID nodeId) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slots.remove(nodeId);
+            if (slot == null) {
+                return;
+            }
+            Adjacency nodeForks = forks[slot];
+            if (nodeForks != null) {
+                for (int i = 0; i < nodeForks.size; i++) {
+                    roots[nodeForks.nodes[i]].remove(nodeForks.linkIds[i]);
+                }
+                linkCount -= nodeForks.size;
+            }
+            Adjacency nodeRoots = roots[slot];
+            if (nodeRoots != null) {
+                for (int i = 0; i < nodeRoots.size; i++) {
+                    if (forks[nodeRoots.nodes[i]].remove(nodeRoots.linkIds[i])) {
+                        linkCount--;
+                    }
+                }
+            }
+            nodeIds[slot] = null;
+            forks[slot] = null;
+            roots[slot] = null;
+            releaseSlot(slot);
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void link(LinkDTO link) {
+        int parent = slotOf(link.parentNodeId());
+        int child = slotOf(link.childNodeId());
+        adjacency(forks, parent).add(child, link.id(), link.choiceText());
+        adjacency(roots, child).add(parent, link.id(), link.choiceText());
+        linkCount++;
+        version++;
+    }
+
+    private List<LinkDTO> neighbours(UUID nodeId, boolean outgoing, boolean orEmpty) {
+        lock.readLock().lock();
+        try {
+            Integer slot = slots.get(nodeId);
+            if (slot == null) {
+                if (orEmpty) {
+                    return List.of();
+                }
+                throw new NoSuchElementException("Node not found: " + nodeId);
+            }
+            return toLinks(outgoing ? forks[slot] : roots[slot], slot, outgoing);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<LinkDTO> toLinks(Adjacency adjacency, int slot, boolean outgoing) {
+        if (adjacency == null) {
+            return List.of();
+        }
+        List<LinkDTO> links = new ArrayList<>(adjacency.size);
+        for (int i = 0; i < adjacency.size; i++) {
+            UUID self = nodeIds[slot];
+            UUID other = nodeIds[adjacency.nodes[i]];
+            links.add(outgoing
+                    ? new LinkDTO(adjacency.linkIds[i], self, other, adjacency.choices[i])
+                    : new LinkDTO(adjacency.linkIds[i], other, self, adjacency.choices[i]));
+        }
+        return links;
+    }
+
+    private int slotOf(UUID nodeId) {
+        Integer slot = slots.get(nodeId);
+        if (slot != null) {
+            return slot;
+        }
+        int newSlot = freeCount > 0 ? freeSlots[--freeCount] : slotCount++;
+        if (newSlot == nodeIds.length) {
+            int capacity = nodeIds.length * 2;
+            nodeIds = Arrays.copyOf(nodeIds, capacity);
+            forks = Arrays.copyOf(forks, capacity);
+            roots = Arrays.copyOf(roots, capacity);
+        }
+        nodeIds[newSlot] = nodeId;
+        slots.put(nodeId, newSlot);
+        version++;
+        return newSlot;
+    }
+
+    private void releaseSlot(int slot) {
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    private static Adjacency adjacency(Adjacency[] adjacencies, int slot) {
+        Adjacency adjacency = adjacencies[slot];
+        if (adjacency == null) {
+            adjacency = new Adjacency();
+            adjacencies[slot] = adjacency;
+        }
+        return adjacency;
+    }
+
+    /**
+     * Ordered neighbour list of one node
+     */
+    private static final class Adjacency {
+        private int[] nodes = new int[2];
+        private UUID[] linkIds = new UUID[2];
+        private String[] choices = new String[2];
+        private int size;
+
+        void add(int node, UUID linkId, String choice) {
+            if (size == nodes.length) {
+                int capacity = size * 2;
+                nodes = Arrays.copyOf(nodes, capacity);
+                linkIds = Arrays.copyOf(linkIds, capacity);
+                choices = Arrays.copyOf(choices, capacity);
+            }
+            nodes[size] = node;
+            linkIds[size] = linkId;
+            choices[size] = choice;
+            size++;
+        }
+
+        boolean remove(UUID linkId) {
+            for (int i = 0; i < size; i++) {
+                if (linkIds[i].equals(linkId)) {
+                    int tail = size - i - 1;
+                    System.arraycopy(nodes, i + 1, nodes, i, tail);
+                    System.arraycopy(linkIds, i + 1, linkIds, i, tail);
+                    System.arraycopy(choices, i + 1, choices, i, tail);
+                    size--;
+                    linkIds[size] = null;
+                    choices[size] = null;
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
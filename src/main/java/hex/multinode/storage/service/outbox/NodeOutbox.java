@@ -0,0 +1,82 @@
+package hex.multinode.storage.service.outbox;
+
+import hex.multinode.storage.model.data.OutboxEvent;
+import hex.multinode.storage.model.generator.UUIDV7Sequence;
+import hex.multinode.storage.service.event.NodeEvent;
+import hex.multinode.storage.service.event.NodeEventCodec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Transactional outbox of {@link NodeEvent}s: events of a transaction are collected as they are published
+ * and written to node_outbox in one batch right before the commit, so an event row exists exactly
+ * when its change is committed. Event ids are taken at that point, close to the commit, but a transaction
+ * may still commit after one with higher ids: consumers deduplicate by event id and must not treat
+ * the id as a version. {@link NodeOutboxRelay} publishes the rows.
+ */
+@Component
+@ConditionalOnProperty(name = "storage.outbox.enabled", havingValue = "true")
+public class NodeOutbox {
+
+    private static final String INSERT_EVENT = "insert into node_outbox (id, node_id, payload) values (?, ?, ?)";
+
+    record Row(UUID id, UUID nodeId, byte[] payload) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public NodeOutbox(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener
+    public void onNodeEvent(NodeEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            insert(List.of(event));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<NodeEvent> pending = (List<NodeEvent>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<NodeEvent> events = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, events);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    insert(events);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(NodeOutbox.this);
+                }
+            });
+            pending = events;
+        }
+        pending.add(event);
+    }
+
+    private void insert(List<NodeEvent> events) {
+        UUIDV7Sequence.Block ids = UUIDV7Sequence.shared().nextBlock(events.size());
+        List<Object[]> rows = new ArrayList<>(events.size());
+        for (NodeEvent event : events) {
+            UUID eventId = ids.next();
+            byte[] payload = NodeEventCodec.encode(eventId, event);
+            if (payload.length > OutboxEvent.MAX_BYTES) {
+                throw new IllegalArgumentException("Node event is too long: " + payload.length + " bytes");
+            }
+            rows.add(new Object[]{eventId, event.nodeId(), payload});
+        }
+        jdbcTemplate.batchUpdate(INSERT_EVENT, rows);
+    }
+}
@@ -0,0 +1,148 @@
+package hex.multinode.storage.service.outbox;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publishes node_outbox rows to storage.outbox.topic every storage.outbox.relay-interval,
+ * up to batch-size rows per send, keyed by node id. Rows are deleted once the broker has acknowledged
+ * the whole batch; a failed batch is sent again, so delivery is at least once and consumers
+ * drop repeated event ids. While sends fail, attempts back off exponentially up to {@link #MAX_BACKOFF}.
+ * Rows are not claimed: only one process may relay an outbox, which the single-writer H2 file already implies.
+ */
+@Component
+@ConditionalOnProperty(name = "storage.outbox.enabled", havingValue = "true")
+@Slf4j
+public class NodeOutboxRelay {
+
+    static final Duration MAX_BACKOFF = Duration.ofSeconds(30);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final String topic;
+    private final int batchSize;
+    private final Duration sendTimeout;
+    private final Duration relayInterval;
+    private final ScheduledExecutorService relay;
+    /**
+     * Failed scheduled attempts in a row and when the next one may run, relay thread only
+     */
+    private int failures;
+    private long retryAt;
+
+    @Autowired
+    public NodeOutboxRelay(JdbcTemplate jdbcTemplate,
+                           KafkaTemplate<String, byte[]> kafkaTemplate,
+                           @Value("${storage.outbox.topic:multinode-node-events}") String topic,
+                           @Value("${storage.outbox.batch-size:500}") int batchSize,
+                           @Value("${storage.outbox.send-timeout:30s}") Duration sendTimeout,
+                           @Value("${storage.outbox.relay-interval:100ms}") Duration relayInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.kafkaTemplate = kafkaTemplate;
+        this.topic = topic;
+        this.batchSize = batchSize;
+        this.sendTimeout = sendTimeout;
+        this.relayInterval = relayInterval;
+        this.relay = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = relayInterval.toMillis();
+        relay.scheduleWithFixedDelay(this::relayQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Publishes all stored events in id order; runs periodically
+     * @return events published
+     */
+    public synchronized int relay() {
+        int published = 0;
+        while (true) {
+            List<NodeOutbox.Row> batch = jdbcTemplate.query("select id, node_id, payload from node_outbox order by id limit ?",
+                    (row, i) -> new NodeOutbox.Row(row.getObject(1, UUID.class), row.getObject(2, UUID.class), row.getBytes(3)),
+                    batchSize);
+            if (batch.isEmpty()) {
+                return published;
+            }
+            send(batch);
+            jdbcTemplate.batchUpdate("delete from node_outbox where id = ?",
+                    batch.stream().map(row -> new Object[]{row.id()}).toList());
+            published += batch.size();
+            if (batch.size() < batchSize) {
+                return published;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        relay.shutdownNow();
+    }
+
+    private void send(List<NodeOutbox.Row> batch) {
+        CompletableFuture<?>[] sends = new CompletableFuture<?>[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            NodeOutbox.Row row = batch.get(i);
+            sends[i] = kafkaTemplate.send(topic, row.nodeId().toString(), row.payload());
+        }
+        kafkaTemplate.flush();
+        try {
+            CompletableFuture.allOf(sends).get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Node events were not published to " + topic, e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Node events were not acknowledged within " + sendTimeout, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while publishing node events", e);
+        }
+    }
+
+    private void relayQuietly() {
+        if (System.currentTimeMillis() < retryAt) {
+            return;
+        }
+        try {
+            relay();
+            if (failures > 0) {
+                log.info("Outbox relay recovered after {} failed attempts", failures);
+                failures = 0;
+            }
+        } catch (RuntimeException e) {
+            failures++;
+            Duration backoff = backoff(relayInterval, failures);
+            retryAt = System.currentTimeMillis() + backoff.toMillis();
+            if (failures == 1) {
+                log.warn("Outbox relay failed, events are sent again in {} ms", backoff.toMillis(), e);
+            } else {
+                log.warn("Outbox relay failed {} times in a row, next attempt in {} ms: {}",
+                        failures, backoff.toMillis(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * relay-interval doubled per failure in a row, at most {@link #MAX_BACKOFF}
+     */
+    static Duration backoff(Duration relayInterval, int failures) {
+        Duration backoff = relayInterval.multipliedBy(1L << Math.min(failures, 20));
+        return backoff.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : backoff;
+    }
+}
@@ -0,0 +1,120 @@
+package hex.multinode.storage.service.prefetch;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-link traversal counts. Readers bump striped {@link LongAdder}s without locks;
+ * every storage.prefetch.flush-interval the increments are added to link_traversal in one batch
+ * and moved to the flushed totals, which are loaded from the DB on startup.
+ */
+@Component
+@Slf4j
+public class ForkPopularity implements SmartInitializingSingleton {
+
+    private static final String ADD_TRAVERSALS = "merge into link_traversal t "
+            + "using (values (cast(? as uuid), cast(? as bigint))) s (link_id, traversals) on t.link_id = s.link_id "
+            + "when matched then update set t.traversals = t.traversals + s.traversals "
+            + "when not matched then insert (link_id, traversals) values (s.link_id, s.traversals)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ConcurrentHashMap<UUID, LongAdder> increments = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, Long> flushed = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+
+    @Autowired
+    public ForkPopularity(JdbcTemplate jdbcTemplate,
+                          @Value("${storage.prefetch.flush-interval:30s}") Duration flushInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "fork-popularity-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = flushInterval.toMillis();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        jdbcTemplate.query("select link_id, traversals from link_traversal",
+                row -> { flushed.put(row.getObject(1, UUID.class), row.getLong(2)); });
+        log.info("Fork popularity loaded: {} links", flushed.size());
+    }
+
+    public void record(UUID linkId) {
+        increments.computeIfAbsent(linkId, id -> new LongAdder()).increment();
+    }
+
+    public long traversals(UUID linkId) {
+        LongAdder pending = increments.get(linkId);
+        return flushed.getOrDefault(linkId, 0L) + (pending == null ? 0 : pending.sum());
+    }
+
+    /**
+     * Adds the increments counted since the last flush to the DB and drops rows of deleted links.
+     * Increments that failed to reach the DB are counted again.
+     * @return links written
+     */
+    public synchronized int flush() {
+        Map<UUID, Long> batch = new LinkedHashMap<>();
+        increments.forEach((linkId, pending) -> {
+            long count = pending.sumThenReset();
+            if (count > 0) {
+                batch.put(linkId, count);
+            }
+        });
+        if (!batch.isEmpty()) {
+            try {
+                jdbcTemplate.batchUpdate(ADD_TRAVERSALS, batch.entrySet().stream()
+                        .map(entry -> new Object[]{entry.getKey(), entry.getValue()})
+                        .toList());
+            } catch (RuntimeException e) {
+                batch.forEach((linkId, count) -> increments.get(linkId).add(count));
+                throw e;
+            }
+            batch.forEach((linkId, count) -> flushed.merge(linkId, count, Long::sum));
+        }
+        List<UUID> deleted = jdbcTemplate.queryForList("select t.link_id from link_traversal t "
+                + "where not exists (select 1 from multi_link l where l.id = t.link_id)", UUID.class);
+        if (!deleted.isEmpty()) {
+            jdbcTemplate.batchUpdate("delete from link_traversal where link_id = ?",
+                    deleted.stream().map(linkId -> new Object[]{linkId}).toList());
+            deleted.forEach(linkId -> {
+                flushed.remove(linkId);
+                increments.remove(linkId);
+            });
+        }
+        return batch.size();
+    }
+
+    @PreDestroy
+    public void close() {
+        flusher.shutdownNow();
+        flushQuietly();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Fork popularity flush failed", e);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package hex.multinode.storage.service.prefetch;
+
+import hex.multinode.storage.model.dto.LinkDTO;
+import hex.multinode.storage.service.cache.NodeCache;
+import hex.multinode.storage.service.graph.StoryGraphIndex;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads the most followed children of a node into the node cache in the background
+ * while the reader is choosing. Best effort: when the queue is full the prefetch is dropped.
+ */
+@Component
+@Slf4j
+public class ForkPrefetcher {
+
+    private static final int QUEUE_CAPACITY = 1024;
+
+    private final StoryGraphIndex graphIndex;
+    private final NodeCache nodeCache;
+    private final ForkPopularity popularity;
+    private final int children;
+    private final ThreadPoolExecutor executor;
+
+    @Autowired
+    public ForkPrefetcher(StoryGraphIndex graphIndex,
+                          NodeCache nodeCache,
+                          ForkPopularity popularity,
+                          @Value("${storage.prefetch.children:2}") int children) {
+        this.graphIndex = graphIndex;
+        this.nodeCache = nodeCache;
+        this.popularity = popularity;
+        this.children = children;
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+                task -> {
+                    Thread thread = new Thread(task, "fork-prefetch");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    /**
+     * Forks of the node, most followed first, choice order among equals
+     */
+    public List<LinkDTO> rank(List<LinkDTO> forks) {
+        return forks.stream()
+                .sorted(Comparator.comparingLong((LinkDTO link) -> popularity.traversals(link.id())).reversed())
+                .toList();
+    }
+
+    /**
+     * Queues loading of up to storage.prefetch.children children of the node that are not cached yet
+     */
+    public void prefetchForks(UUID nodeId) {
+        if (children <= 0) {
+            return;
+        }
+        List<UUID> misses = rank(graphIndex.forksOrEmpty(nodeId)).stream()
+                .map(LinkDTO::childNodeId)
+                .distinct()
+                .limit(children)
+                .filter(childId -> !nodeCache.contains(childId))
+                .toList();
+        if (!misses.isEmpty()) {
+            executor.execute(() -> load(misses));
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * One node at a time: a single load is computed in the cache and cannot overwrite an invalidation
+     * that arrives during the DB read, while a bulk load puts its results after the read
+     */
+    private void load(List<UUID> ids) {
+        try {
+            ids.forEach(nodeCache::get);
+        } catch (RuntimeException e) {
+            log.warn("Fork prefetch of {} failed", ids, e);
+        }
+    }
+}
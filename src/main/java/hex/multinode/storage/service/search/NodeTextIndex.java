@@ -0,0 +1,277 @@
+package hex.multinode.storage.service.search;
+
+import hex.multinode.storage.model.dto.NodeView;
+import hex.multinode.storage.model.dto.TextSearchHit;
+import hex.multinode.storage.repository.db.NodeDBRepository;
+import hex.multinode.storage.service.event.NodeEvent;
+import hex.multinode.storage.service.snapshot.StorySnapshot;
+import hex.multinode.storage.service.snapshot.StorySnapshotStore;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.ru.RussianAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchNoDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Embedded Lucene index over node titles and content text, searched as one field.
+ * Rebuilt from the story snapshot or the DB on startup; {@link NodeEvent}s only mark nodes dirty,
+ * a background task reloads dirty nodes in chunks and reopens the searcher,
+ * so writers never wait for indexing and search sees changes within the refresh interval.
+ * Hits are ranked by BM25 score alone, which lets Lucene skip non-competitive blocks
+ * of frequent terms instead of scoring every match.
+ */
+@Component
+@Slf4j
+public class NodeTextIndex implements SmartInitializingSingleton, AutoCloseable {
+
+    static final String ID = "id";
+    static final String TITLE = "title";
+    static final String BODY = "body";
+
+    private static final Set<String> HIT_FIELDS = Set.of(ID, TITLE);
+    private static final int LOAD_CHUNK = 500;
+
+    private final NodeDBRepository nodeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final StorySnapshotStore snapshotStore;
+    private final Analyzer analyzer = new RussianAnalyzer();
+    private final Directory directory;
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+    private final Set<UUID> dirty = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService refresher;
+
+    @Autowired
+    public NodeTextIndex(NodeDBRepository nodeRepository,
+                         TransactionTemplate transactionTemplate,
+                         StorySnapshotStore snapshotStore,
+                         @Value("${storage.search.index-dir:}") String indexDir,
+                         @Value("${storage.search.refresh-interval:200ms}") Duration refreshInterval) {
+        this.nodeRepository = nodeRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.snapshotStore = snapshotStore;
+        try {
+            this.directory = indexDir.isBlank() ? new ByteBuffersDirectory() : FSDirectory.open(Path.of(indexDir));
+            this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                    .setOpenMode(IndexWriterConfig.OpenMode.CREATE));
+            this.searcherManager = new SearcherManager(writer, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.refresher = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "text-index-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = refreshInterval.toMillis();
+        refresher.scheduleWithFixedDelay(this::refreshQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        long start = System.currentTimeMillis();
+        Optional<StorySnapshot> snapshot = snapshotStore.loaded();
+        if (snapshot.isPresent()) {
+            load(snapshot.get().views());
+        } else {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<NodeView> views = nodeRepository.streamAllViews()) {
+                    load(views);
+                }
+            });
+        }
+        log.info("Text index loaded from the {}: {} nodes in {} ms", snapshot.isPresent() ? "snapshot" : "DB",
+                size(), System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNodeEvent(NodeEvent event) {
+        if (event.type() != NodeEvent.Type.FORKED) {
+            dirty.add(event.nodeId());
+        }
+    }
+
+    /**
+     * Replaces the whole index
+     */
+    public synchronized void load(Stream<NodeView> nodes) {
+        try {
+            writer.deleteAll();
+            for (NodeView node : (Iterable<NodeView>) nodes::iterator) {
+                writer.addDocument(toDocument(node));
+            }
+            // a bulk load leaves dozens of flushed segments, each adding per-query overhead
+            writer.forceMerge(1);
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reindexes dirty nodes and makes them visible to search; runs periodically,
+     * callers needing read-your-writes may invoke it directly
+     */
+    public synchronized void refresh() {
+        List<UUID> ids = new ArrayList<>(dirty);
+        dirty.removeAll(ids);
+        try {
+            for (int from = 0; from < ids.size(); from += LOAD_CHUNK) {
+                reindex(ids.subList(from, Math.min(from + LOAD_CHUNK, ids.size())));
+            }
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException | RuntimeException e) {
+            dirty.addAll(ids);
+            throw e instanceof IOException io ? new UncheckedIOException(io) : (RuntimeException) e;
+        }
+    }
+
+    /**
+     * @param queryText words, "phrases", prefix*, -excluded, a | b; all words must match by default
+     * @param after last hit of the previous page, null - first page
+     * @return up to limit hits by descending score
+     */
+    public List<TextSearchHit> search(String queryText, TextSearchHit after, int limit) {
+        Query query = parse(queryText);
+        if (query instanceof MatchNoDocsQuery) {
+            return List.of();
+        }
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopDocs top = searcher.searchAfter(after == null ? null : cursor(searcher, after), query, limit);
+                StoredFields storedFields = searcher.storedFields();
+                List<TextSearchHit> hits = new ArrayList<>(top.scoreDocs.length);
+                for (ScoreDoc scoreDoc : top.scoreDocs) {
+                    Document document = storedFields.document(scoreDoc.doc, HIT_FIELDS);
+                    hits.add(new TextSearchHit(UUID.fromString(document.get(ID)), document.get(TITLE), scoreDoc.score));
+                }
+                return hits;
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return nodes visible to search
+     */
+    public int size() {
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                return searcher.getIndexReader().numDocs();
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        refresher.shutdownNow();
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    /**
+     * Ties are ordered by doc id, so the cursor is the current doc of the last hit;
+     * a hit deleted since the previous page repeats the hits of equal score
+     */
+    private static ScoreDoc cursor(IndexSearcher searcher, TextSearchHit after) throws IOException {
+        ScoreDoc[] last = searcher.search(new TermQuery(idTerm(after.id())), 1).scoreDocs;
+        return new ScoreDoc(last.length == 0 ? -1 : last[0].doc, after.score());
+    }
+
+    private Query parse(String queryText) {
+        if (queryText == null || queryText.isBlank()) {
+            throw new IllegalArgumentException("Search query is empty");
+        }
+        SimpleQueryParser parser = new SimpleQueryParser(analyzer, BODY);
+        parser.setDefaultOperator(BooleanClause.Occur.MUST);
+        Query query = parser.parse(queryText);
+        return query == null ? new MatchNoDocsQuery() : query;
+    }
+
+    private void reindex(List<UUID> ids) throws IOException {
+        Set<UUID> deleted = new HashSet<>(ids);
+        for (NodeView node : nodeRepository.findViewsByIdIn(ids)) {
+            writer.updateDocument(idTerm(node.id()), toDocument(node));
+            deleted.remove(node.id());
+        }
+        for (UUID id : deleted) {
+            writer.deleteDocuments(idTerm(id));
+        }
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Text index refresh failed", e);
+        }
+    }
+
+    private static Term idTerm(UUID id) {
+        return new Term(ID, id.toString());
+    }
+
+    private static Document toDocument(NodeView node) {
+        String id = node.id().toString();
+        Document document = new Document();
+        document.add(new StringField(ID, id, Field.Store.YES));
+        String title = node.title() == null ? "" : node.title();
+        String text = node.text() == null ? "" : node.text();
+        document.add(new StoredField(TITLE, title));
+        // the title is indexed twice instead of a separate boosted clause, which would stop
+        // conjunctions of frequent words from skipping blocks
+        document.add(new TextField(BODY, title + "\n" + title + "\n" + text, Field.Store.NO));
+        return document;
+    }
+}
@@ -0,0 +1,193 @@
+package hex.multinode.storage.service.snapshot;
+
+import hex.multinode.storage.model.dto.LinkDTO;
+import hex.multinode.storage.model.dto.NodeView;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static hex.multinode.storage.service.snapshot.StorySnapshotFormat.*;
+
+/**
+ * Read-only view of a story snapshot file mapped into memory.
+ * Records are read with absolute gets straight from the page cache, nothing is parsed on open,
+ * so opening costs the same for any graph size and concurrent readers need no locking.
+ * Nodes are found by binary search over the id-ordered records.
+ */
+public final class StorySnapshot {
+
+    private final Path file;
+    private final ByteBuffer buffer;
+    private final int nodeCount;
+    private final int linkCount;
+    private final int linksOffset;
+    private final int forksOffset;
+    private final int stringsOffset;
+    private final LocalDateTime lastUpdated;
+
+    private StorySnapshot(Path file, ByteBuffer buffer) {
+        this.file = file;
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(H_MAGIC) != MAGIC) {
+            throw new IllegalArgumentException("Not a story snapshot: " + file);
+        }
+        if (buffer.getInt(H_FORMAT) != FORMAT) {
+            throw new IllegalArgumentException("Unsupported snapshot format " + buffer.getInt(H_FORMAT) + ": " + file);
+        }
+        this.nodeCount = buffer.getInt(H_NODE_COUNT);
+        this.linkCount = buffer.getInt(H_LINK_COUNT);
+        this.linksOffset = (int) buffer.getLong(H_LINKS_OFFSET);
+        this.forksOffset = (int) buffer.getLong(H_FORKS_OFFSET);
+        this.stringsOffset = (int) buffer.getLong(H_STRINGS_OFFSET);
+        this.lastUpdated = fromMicros(buffer.getLong(H_LAST_UPDATED));
+        if (stringsOffset > buffer.capacity()) {
+            throw new IllegalArgumentException("Truncated story snapshot: " + file);
+        }
+    }
+
+    public static StorySnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Snapshot exceeds 2 GB: " + file);
+            }
+            // the mapping stays valid after the channel is closed and the file is replaced
+            return new StorySnapshot(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    public int linkCount() {
+        return linkCount;
+    }
+
+    public long sizeBytes() {
+        return buffer.capacity();
+    }
+
+    /**
+     * @return latest update date of the nodes, null for an empty snapshot
+     */
+    public LocalDateTime lastUpdated() {
+        return lastUpdated;
+    }
+
+    public boolean contains(UUID id) {
+        return indexOf(id) >= 0;
+    }
+
+    public Optional<NodeView> findView(UUID id) {
+        int node = indexOf(id);
+        return node < 0 ? Optional.empty() : Optional.of(view(node));
+    }
+
+    /**
+     * @return choices from the node in creation order, empty for a missing node
+     */
+    public List<LinkDTO> forksOf(UUID id) {
+        int node = indexOf(id);
+        if (node < 0) {
+            return List.of();
+        }
+        int record = nodeRecord(node);
+        int first = buffer.getInt(record + N_FIRST_FORK);
+        int count = buffer.getInt(record + N_FORK_COUNT);
+        List<LinkDTO> forks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            forks.add(link(buffer.getInt(forksOffset + (first + i) * Integer.BYTES)));
+        }
+        return forks;
+    }
+
+    /**
+     * @return node ids in id order
+     */
+    public Stream<UUID> nodeIds() {
+        return IntStream.range(0, nodeCount).mapToObj(node -> uuid(nodeRecord(node)));
+    }
+
+    /**
+     * @return nodes in id order
+     */
+    public Stream<NodeView> views() {
+        return IntStream.range(0, nodeCount).mapToObj(this::view);
+    }
+
+    /**
+     * @return links in creation order
+     */
+    public Stream<LinkDTO> links() {
+        return IntStream.range(0, linkCount).mapToObj(this::link);
+    }
+
+    private int indexOf(UUID id) {
+        int low = 0;
+        int high = nodeCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int record = nodeRecord(mid);
+            int cmp = compare(buffer.getLong(record), buffer.getLong(record + Long.BYTES), id);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private NodeView view(int node) {
+        int record = nodeRecord(node);
+        return new NodeView(uuid(record),
+                string(buffer.getInt(record + N_TITLE)),
+                string(buffer.getInt(record + N_TEXT)),
+                fromMicros(buffer.getLong(record + N_CREATED)),
+                fromMicros(buffer.getLong(record + N_UPDATED)),
+                buffer.getLong(record + N_VERSION));
+    }
+
+    private LinkDTO link(int link) {
+        int record = linksOffset + link * LINK_SIZE;
+        return new LinkDTO(uuid(record),
+                uuid(nodeRecord(buffer.getInt(record + L_PARENT))),
+                uuid(nodeRecord(buffer.getInt(record + L_CHILD))),
+                string(buffer.getInt(record + L_CHOICE)));
+    }
+
+    private UUID uuid(int offset) {
+        return new UUID(buffer.getLong(offset), buffer.getLong(offset + Long.BYTES));
+    }
+
+    private String string(int ref) {
+        if (ref == NO_STRING) {
+            return null;
+        }
+        int offset = stringsOffset + ref;
+        byte[] bytes = new byte[buffer.getInt(offset)];
+        buffer.get(offset + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int nodeRecord(int node) {
+        return HEADER_SIZE + node * NODE_SIZE;
+    }
+}
@@ -0,0 +1,75 @@
+package hex.multinode.storage.service.snapshot;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+/**
+ * Layout of a story snapshot file, all numbers big-endian:
+ * <pre>
+ * header  | magic, format, node count, link count, section offsets, last update
+ * nodes   | NODE_SIZE records sorted by id (unsigned, as the DB orders UUIDs):
+ *         |   id, title ref, text ref, first fork, fork count, version, created, updated
+ * links   | LINK_SIZE records in creation (UUIDv7) order: id, parent node, child node, choice ref
+ * forks   | int link indexes grouped by parent node, each group in creation order
+ * strings | int byte length + UTF-8 bytes, short strings stored once
+ * </pre>
+ * Node references are record indexes, string refs are offsets in the string table (-1 for null),
+ * dates are epoch microseconds in UTC ({@link #NO_DATE} for null).
+ */
+final class StorySnapshotFormat {
+
+    static final int MAGIC = 0x4E53534E; // "NSSN"
+    static final int FORMAT = 1;
+
+    static final int HEADER_SIZE = 64;
+    static final int NODE_SIZE = 56;
+    static final int LINK_SIZE = 28;
+
+    static final int H_MAGIC = 0;
+    static final int H_FORMAT = 4;
+    static final int H_NODE_COUNT = 8;
+    static final int H_LINK_COUNT = 12;
+    static final int H_LINKS_OFFSET = 16;
+    static final int H_FORKS_OFFSET = 24;
+    static final int H_STRINGS_OFFSET = 32;
+    static final int H_LAST_UPDATED = 40;
+
+    static final int N_TITLE = 16;
+    static final int N_TEXT = 20;
+    static final int N_FIRST_FORK = 24;
+    static final int N_FORK_COUNT = 28;
+    static final int N_VERSION = 32;
+    static final int N_CREATED = 40;
+    static final int N_UPDATED = 48;
+
+    static final int L_PARENT = 16;
+    static final int L_CHILD = 20;
+    static final int L_CHOICE = 24;
+
+    static final int NO_STRING = -1;
+    static final long NO_DATE = Long.MIN_VALUE;
+
+    private StorySnapshotFormat() {
+    }
+
+    static int compare(long msb, long lsb, UUID id) {
+        int cmp = Long.compareUnsigned(msb, id.getMostSignificantBits());
+        return cmp != 0 ? cmp : Long.compareUnsigned(lsb, id.getLeastSignificantBits());
+    }
+
+    static long toMicros(LocalDateTime date) {
+        if (date == null) {
+            return NO_DATE;
+        }
+        return date.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + date.getNano() / 1_000;
+    }
+
+    static LocalDateTime fromMicros(long micros) {
+        if (micros == NO_DATE) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,229 @@
+package hex.multinode.storage.service.snapshot;
+
+import hex.multinode.storage.model.data.ContentBlob;
+import hex.multinode.storage.model.data.MultiNode;
+import hex.multinode.storage.model.dto.LinkDTO;
+import hex.multinode.storage.model.dto.NodeView;
+import hex.multinode.storage.model.dto.SnapshotInfo;
+import hex.multinode.storage.model.generator.UUIDV7Sequence;
+import hex.multinode.storage.repository.db.LinkDBRepository;
+import hex.multinode.storage.repository.db.NodeDBRepository;
+import hex.multinode.storage.service.content.ContentStore;
+import hex.multinode.storage.service.event.NodeEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Story snapshot file for fast cold start (storage.snapshot.file, empty - disabled).
+ * On startup an empty DB is filled from the snapshot, otherwise the snapshot is used
+ * only if it still matches the DB (node and link counts, last update date).
+ * A matching snapshot builds the graph and text indexes and serves node reads
+ * until the node changes; the export writes a new file for the next start.
+ */
+@Component
+@Slf4j
+public class StorySnapshotStore {
+
+    private static final int IMPORT_BATCH = 1000;
+
+    private final NodeDBRepository nodeRepository;
+    private final LinkDBRepository linkRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ContentStore contentStore;
+    private final Path file;
+    private final boolean exportOnShutdown;
+    private final Set<UUID> changed = ConcurrentHashMap.newKeySet();
+    private final StorySnapshot loaded;
+
+    @Autowired
+    public StorySnapshotStore(NodeDBRepository nodeRepository,
+                              LinkDBRepository linkRepository,
+                              JdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate,
+                              ContentStore contentStore,
+                              @Value("${storage.snapshot.file:}") String file,
+                              @Value("${storage.snapshot.export-on-shutdown:false}") boolean exportOnShutdown) {
+        this.nodeRepository = nodeRepository;
+        this.linkRepository = linkRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.contentStore = contentStore;
+        this.file = file.isBlank() ? null : Path.of(file);
+        this.exportOnShutdown = exportOnShutdown;
+        this.loaded = this.file == null ? null : openOnStartup(this.file);
+    }
+
+    /**
+     * @return snapshot matching the DB as of startup
+     */
+    public Optional<StorySnapshot> loaded() {
+        return Optional.ofNullable(loaded);
+    }
+
+    /**
+     * @return node from the snapshot, empty if the node is not there or changed since startup
+     */
+    public Optional<NodeView> findView(UUID id) {
+        if (loaded == null || changed.contains(id)) {
+            return Optional.empty();
+        }
+        return loaded.findView(id);
+    }
+
+    /**
+     * Marked on publication, before commit, so a reader never gets the snapshot version
+     * of a node with a newer committed one
+     */
+    @EventListener
+    public void onNodeEvent(NodeEvent event) {
+        if (event.type() != NodeEvent.Type.FORKED) {
+            changed.add(event.nodeId());
+        }
+    }
+
+    /**
+     * Writes the current DB to the configured file
+     */
+    public SnapshotInfo export() {
+        if (file == null) {
+            throw new IllegalStateException("Snapshot file is not configured (storage.snapshot.file)");
+        }
+        return export(file);
+    }
+
+    public SnapshotInfo export(Path target) {
+        long start = System.currentTimeMillis();
+        SnapshotInfo info = transactionTemplate.execute(status -> {
+            try (Stream<NodeView> nodes = nodeRepository.streamAllViewsOrderById();
+                 Stream<LinkDTO> links = linkRepository.streamAllLinks()) {
+                long bytes = StorySnapshotWriter.write(target, nodes, links);
+                StorySnapshot written = StorySnapshot.open(target);
+                return new SnapshotInfo(target.toString(), written.nodeCount(), written.linkCount(), bytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        log.info("Story snapshot exported to {}: {} nodes, {} links, {} bytes in {} ms", info.file(),
+                info.nodes(), info.links(), info.bytes(), System.currentTimeMillis() - start);
+        return info;
+    }
+
+    /**
+     * Inserts the snapshot into an empty DB keeping node and link ids
+     */
+    public void importSnapshot(StorySnapshot snapshot) {
+        long start = System.currentTimeMillis();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (nodeRepository.count() > 0) {
+                throw new IllegalStateException("Snapshot import needs an empty DB");
+            }
+            insertNodes(snapshot);
+            batches(snapshot.links(), links -> jdbcTemplate.batchUpdate(
+                    "insert into multi_link (id, parent_node_id, child_node_id, choice_text) values (?, ?, ?, ?)",
+                    links.stream().map(link -> new Object[]{
+                            link.id(), link.parentNodeId(), link.childNodeId(), link.choiceText()}).toList()));
+        });
+        log.info("Story snapshot {} imported: {} nodes, {} links in {} ms", snapshot.file(),
+                snapshot.nodeCount(), snapshot.linkCount(), System.currentTimeMillis() - start);
+    }
+
+    @PreDestroy
+    public void exportOnShutdown() {
+        if (file != null && exportOnShutdown) {
+            try {
+                export();
+            } catch (RuntimeException e) {
+                log.warn("Story snapshot export on shutdown failed", e);
+            }
+        }
+    }
+
+    private StorySnapshot openOnStartup(Path path) {
+        if (!Files.exists(path)) {
+            log.info("Story snapshot {} not found, indexes are loaded from the DB", path);
+            return null;
+        }
+        try {
+            StorySnapshot snapshot = StorySnapshot.open(path);
+            if (nodeRepository.count() == 0) {
+                importSnapshot(snapshot);
+                return snapshot;
+            }
+            if (snapshot.nodeCount() == nodeRepository.count()
+                    && snapshot.linkCount() == linkRepository.count()
+                    && Objects.equals(snapshot.lastUpdated(), nodeRepository.findLastUpdated().orElse(null))) {
+                return snapshot;
+            }
+            log.warn("Story snapshot {} is older than the DB and is ignored", path);
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Story snapshot {} is unreadable and is ignored", path, e);
+        }
+        return null;
+    }
+
+    private void insertNodes(StorySnapshot snapshot) {
+        UUIDV7Sequence contentIds = UUIDV7Sequence.shared();
+        batches(snapshot.views(), nodes -> {
+            List<Object[]> contents = new ArrayList<>();
+            Map<String, ContentBlob> blobs = new HashMap<>();
+            List<Object[]> rows = new ArrayList<>(nodes.size());
+            for (NodeView node : nodes) {
+                UUID contentId = null;
+                if (node.text() != null) {
+                    contentId = contentIds.next();
+                    ContentBlob blob = contentStore.blobOf(node.text());
+                    if (blob == null) {
+                        contents.add(new Object[]{contentId, node.text(), null});
+                    } else {
+                        blobs.putIfAbsent(blob.getHash(), blob);
+                        contents.add(new Object[]{contentId, null, blob.getHash()});
+                    }
+                }
+                rows.add(new Object[]{node.id(), node.title(), MultiNode.titleKey(node.title()), contentId,
+                        node.dateCreated(), node.dateUpdated(), node.version()});
+            }
+            contentStore.mergeAll(blobs.values());
+            jdbcTemplate.batchUpdate("insert into multi_content (id, text, text_hash, version) values (?, ?, ?, 0)",
+                    contents);
+            jdbcTemplate.batchUpdate("insert into multi_node "
+                    + "(id, title, title_key, content_id, date_created, date_updated, version) "
+                    + "values (?, ?, ?, ?, ?, ?, ?)", rows);
+        });
+    }
+
+    private static <T> void batches(Stream<T> items, Consumer<List<T>> insert) {
+        Iterator<T> iterator = items.iterator();
+        List<T> batch = new ArrayList<>(IMPORT_BATCH);
+        while (iterator.hasNext()) {
+            batch.add(iterator.next());
+            if (batch.size() == IMPORT_BATCH || !iterator.hasNext()) {
+                insert.accept(batch);
+                batch = new ArrayList<>(IMPORT_BATCH);
+            }
+        }
+    }
+}
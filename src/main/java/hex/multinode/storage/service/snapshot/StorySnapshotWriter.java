@@ -0,0 +1,235 @@
+package hex.multinode.storage.service.snapshot;
+
+import hex.multinode.storage.model.dto.LinkDTO;
+import hex.multinode.storage.model.dto.NodeView;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static hex.multinode.storage.service.snapshot.StorySnapshotFormat.*;
+
+/**
+ * Writes a {@link StorySnapshot} file: node and link records are assembled in heap,
+ * texts are streamed to a temporary string table, and the finished file replaces the old one atomically,
+ * so a reader never maps a half-written snapshot.
+ */
+public final class StorySnapshotWriter {
+
+    private static final int SHORT_STRING = 64;
+    private static final int MAX_SHARED_STRINGS = 100_000;
+
+    private StorySnapshotWriter() {
+    }
+
+    /**
+     * @param nodes all nodes ordered by id
+     * @param links all links in creation order
+     * @return size of the file in bytes
+     */
+    public static long write(Path file, Stream<NodeView> nodes, Stream<LinkDTO> links) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path strings = Files.createTempFile(dir, file.getFileName().toString(), ".strings");
+        Path target = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try {
+            Sections sections;
+            try (StringTable table = new StringTable(strings)) {
+                sections = new Sections();
+                for (NodeView node : (Iterable<NodeView>) nodes::iterator) {
+                    sections.addNode(node, table);
+                }
+                for (LinkDTO link : (Iterable<LinkDTO>) links::iterator) {
+                    sections.addLink(link, table);
+                }
+            }
+            long size = sections.writeTo(target, strings);
+            Files.move(target, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return size;
+        } finally {
+            Files.deleteIfExists(strings);
+            Files.deleteIfExists(target);
+        }
+    }
+
+    private static final class Sections {
+        private final Map<UUID, Integer> indexes = new HashMap<>();
+        private ByteBuffer nodes = ByteBuffer.allocate(NODE_SIZE * 1024);
+        private ByteBuffer links = ByteBuffer.allocate(LINK_SIZE * 1024);
+        private int[] parents = new int[1024];
+        private int nodeCount;
+        private int linkCount;
+        private long lastUpdated = NO_DATE;
+        private UUID lastId;
+
+        void addNode(NodeView node, StringTable table) throws IOException {
+            if (lastId != null && compare(lastId.getMostSignificantBits(), lastId.getLeastSignificantBits(),
+                    node.id()) >= 0) {
+                throw new IllegalArgumentException("Nodes are not ordered by id: " + node.id() + " after " + lastId);
+            }
+            lastId = node.id();
+            nodes = ensureCapacity(nodes, NODE_SIZE);
+            long updated = toMicros(node.dateUpdated());
+            nodes.putLong(node.id().getMostSignificantBits())
+                    .putLong(node.id().getLeastSignificantBits())
+                    .putInt(table.add(node.title()))
+                    .putInt(table.add(node.text()))
+                    .putInt(0)
+                    .putInt(0)
+                    .putLong(node.version())
+                    .putLong(toMicros(node.dateCreated()))
+                    .putLong(updated);
+            lastUpdated = Math.max(lastUpdated, updated);
+            indexes.put(node.id(), nodeCount++);
+        }
+
+        void addLink(LinkDTO link, StringTable table) throws IOException {
+            int parent = indexOf(link.parentNodeId(), link);
+            int child = indexOf(link.childNodeId(), link);
+            links = ensureCapacity(links, LINK_SIZE);
+            links.putLong(link.id().getMostSignificantBits())
+                    .putLong(link.id().getLeastSignificantBits())
+                    .putInt(parent)
+                    .putInt(child)
+                    .putInt(table.add(link.choiceText()));
+            if (linkCount == parents.length) {
+                parents = Arrays.copyOf(parents, linkCount * 2);
+            }
+            parents[linkCount++] = parent;
+        }
+
+        long writeTo(Path target, Path strings) throws IOException {
+            ByteBuffer forks = groupForks();
+            long linksOffset = HEADER_SIZE + (long) nodeCount * NODE_SIZE;
+            long forksOffset = linksOffset + (long) linkCount * LINK_SIZE;
+            long stringsOffset = forksOffset + (long) linkCount * Integer.BYTES;
+            long size = stringsOffset + Files.size(strings);
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Snapshot exceeds 2 GB: " + size + " bytes");
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                    .putInt(H_MAGIC, MAGIC)
+                    .putInt(H_FORMAT, FORMAT)
+                    .putInt(H_NODE_COUNT, nodeCount)
+                    .putInt(H_LINK_COUNT, linkCount)
+                    .putLong(H_LINKS_OFFSET, linksOffset)
+                    .putLong(H_FORKS_OFFSET, forksOffset)
+                    .putLong(H_STRINGS_OFFSET, stringsOffset)
+                    .putLong(H_LAST_UPDATED, lastUpdated);
+            try (FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                 FileChannel in = FileChannel.open(strings, StandardOpenOption.READ)) {
+                writeFully(out, header);
+                writeFully(out, nodes.flip());
+                writeFully(out, links.flip());
+                writeFully(out, forks.flip());
+                long copied = 0;
+                while (copied < in.size()) {
+                    copied += in.transferTo(copied, in.size() - copied, out);
+                }
+                out.force(true);
+            }
+            return size;
+        }
+
+        /**
+         * Counting sort of link indexes by parent, filling first fork and fork count of the node records
+         */
+        private ByteBuffer groupForks() {
+            int[] starts = new int[nodeCount + 1];
+            for (int i = 0; i < linkCount; i++) {
+                starts[parents[i] + 1]++;
+            }
+            for (int node = 0; node < nodeCount; node++) {
+                nodes.putInt(node * NODE_SIZE + N_FIRST_FORK, starts[node]);
+                nodes.putInt(node * NODE_SIZE + N_FORK_COUNT, starts[node + 1]);
+                starts[node + 1] += starts[node];
+            }
+            int[] grouped = new int[linkCount];
+            int[] next = Arrays.copyOf(starts, nodeCount);
+            for (int i = 0; i < linkCount; i++) {
+                grouped[next[parents[i]]++] = i;
+            }
+            ByteBuffer forks = ByteBuffer.allocate(linkCount * Integer.BYTES);
+            forks.asIntBuffer().put(grouped);
+            return forks.position(forks.capacity());
+        }
+
+        private int indexOf(UUID nodeId, LinkDTO link) {
+            Integer index = indexes.get(nodeId);
+            if (index == null) {
+                throw new IllegalArgumentException("Link " + link.id() + " refers to a missing node " + nodeId);
+            }
+            return index;
+        }
+
+        private static ByteBuffer ensureCapacity(ByteBuffer buffer, int record) {
+            if (buffer.remaining() >= record) {
+                return buffer;
+            }
+            ByteBuffer grown = ByteBuffer.allocate(buffer.capacity() * 2);
+            return grown.put(buffer.flip());
+        }
+
+        private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Length-prefixed UTF-8 strings; short ones (titles, choices) are written once
+     * until the dictionary is full
+     */
+    private static final class StringTable implements AutoCloseable {
+        private final DataOutputStream out;
+        private final Map<String, Integer> shared = new HashMap<>();
+        private int offset;
+
+        StringTable(Path file) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+        }
+
+        int add(String value) throws IOException {
+            if (value == null) {
+                return NO_STRING;
+            }
+            boolean isShort = value.length() <= SHORT_STRING;
+            if (isShort) {
+                Integer known = shared.get(value);
+                if (known != null) {
+                    return known;
+                }
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            if ((long) offset + Integer.BYTES + bytes.length > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Snapshot string table exceeds 2 GB");
+            }
+            int ref = offset;
+            out.writeInt(bytes.length);
+            out.write(bytes);
+            offset += Integer.BYTES + bytes.length;
+            if (isShort && shared.size() < MAX_SHARED_STRINGS) {
+                shared.put(value, ref);
+            }
+            return ref;
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package hex.multinode.storage.service.writebehind;
+
+import hex.multinode.storage.model.dto.NodeDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind buffer of unconditional node edits (storage.write-behind.enabled).
+ * An edit is acknowledged once it is in the local journal; edits of one node
+ * replace each other until {@link NodeEditFlusher} writes them to the DB in batches.
+ * Pending edits stay visible to reads by id (snapshots, walks, fork snapshots) until their batch commits,
+ * and are replayed from the journal after a crash. Title lookups and text search query the DB
+ * and the text index, so they see an edit only once its batch commits.
+ */
+@Component
+@Slf4j
+public class NodeEditBuffer {
+
+    private final boolean enabled;
+    private final NodeEditJournal journal;
+    /**
+     * Latest edit per node, kept until the batch holding it commits
+     */
+    private final Map<UUID, PendingEdit> pending = new ConcurrentHashMap<>();
+    /**
+     * Appends share the read lock, draining takes the write lock to cut the journal
+     * between edits that are in the batch and edits that are not
+     */
+    private final ReadWriteLock drainLock = new ReentrantReadWriteLock();
+
+    @Autowired
+    public NodeEditBuffer(MeterRegistry meterRegistry,
+                          @Value("${storage.write-behind.enabled:false}") boolean enabled,
+                          @Value("${storage.write-behind.journal-dir:./data/journal}") String journalDir) {
+        this.enabled = enabled;
+        this.journal = enabled ? new NodeEditJournal(Path.of(journalDir)) : null;
+        if (enabled) {
+            journal.replay((edit, segment) -> pending.put(UUID.fromString(edit.id()), new PendingEdit(edit, segment)));
+            if (!pending.isEmpty()) {
+                log.info("Write-behind buffer recovered {} unflushed edits", pending.size());
+            }
+        }
+        Gauge.builder("nodestorage.write-behind.pending", pending, Map::size)
+                .description("Node edits acknowledged but not yet written to the DB")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Journals the edit and returns once it is durable
+     */
+    public void submit(NodeDTO edit) {
+        submitAll(List.of(edit));
+    }
+
+    /**
+     * Journals the edits with one write and one fsync
+     */
+    public void submitAll(Collection<NodeDTO> edits) {
+        if (!enabled) {
+            throw new IllegalStateException("Write-behind is disabled (storage.write-behind.enabled)");
+        }
+        if (edits.isEmpty()) {
+            return;
+        }
+        drainLock.readLock().lock();
+        try {
+            long segment = journal.append(edits);
+            for (NodeDTO edit : edits) {
+                pending.put(UUID.fromString(edit.id()), new PendingEdit(edit, segment));
+            }
+        } finally {
+            drainLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return edit of the node not yet committed to the DB
+     */
+    public Optional<NodeDTO> pending(UUID nodeId) {
+        PendingEdit edit = pending.get(nodeId);
+        return edit == null ? Optional.empty() : Optional.of(edit.edit());
+    }
+
+    public boolean hasPending(UUID nodeId) {
+        return pending.containsKey(nodeId);
+    }
+
+    public int size() {
+        return pending.size();
+    }
+
+    /**
+     * Takes up to limit pending edits; they stay pending until {@link #completed}.
+     * Called by one flushing thread at a time.
+     */
+    List<PendingEdit> drain(int limit) {
+        if (pending.isEmpty()) {
+            return List.of();
+        }
+        drainLock.writeLock().lock();
+        try {
+            journal.roll();
+            List<PendingEdit> batch = new ArrayList<>(Math.min(limit, pending.size()));
+            for (PendingEdit edit : pending.values()) {
+                if (batch.size() == limit) {
+                    break;
+                }
+                batch.add(edit);
+            }
+            return batch;
+        } finally {
+            drainLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Forgets the committed edits that were not replaced meanwhile
+     * and drops journal segments holding no pending edit
+     */
+    void completed(List<PendingEdit> batch) {
+        for (PendingEdit edit : batch) {
+            pending.remove(UUID.fromString(edit.edit().id()), edit);
+        }
+        drainLock.writeLock().lock();
+        try {
+            long firstLive = journal.segment();
+            for (PendingEdit edit : pending.values()) {
+                firstLive = Math.min(firstLive, edit.segment());
+            }
+            journal.deleteBefore(firstLive);
+        } finally {
+            drainLock.writeLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    /**
+     * @param segment journal segment holding the edit
+     */
+    record PendingEdit(NodeDTO edit, long segment) {
+    }
+}
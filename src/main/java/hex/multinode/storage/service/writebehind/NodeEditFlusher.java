@@ -0,0 +1,112 @@
+package hex.multinode.storage.service.writebehind;
+
+import hex.multinode.storage.model.data.MultiNode;
+import hex.multinode.storage.service.NodeManager;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes buffered edits to the DB every storage.write-behind.window,
+ * up to max-batch edits per transaction. A batch the DB rejects for its data is split
+ * until the rejected edit is alone, which is dropped with an error; any other failed batch
+ * stays pending and is retried with the edits that arrive meanwhile.
+ */
+@Component
+@Slf4j
+public class NodeEditFlusher {
+
+    private final NodeManager<MultiNode> nodeManager;
+    private final NodeEditBuffer buffer;
+    private final int maxBatch;
+    private final ScheduledExecutorService flusher;
+
+    @Autowired
+    public NodeEditFlusher(NodeManager<MultiNode> nodeManager,
+                           NodeEditBuffer buffer,
+                           @Value("${storage.write-behind.window:200ms}") Duration window,
+                           @Value("${storage.write-behind.max-batch:500}") int maxBatch) {
+        this.nodeManager = nodeManager;
+        this.buffer = buffer;
+        this.maxBatch = maxBatch;
+        if (buffer.isEnabled()) {
+            this.flusher = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "write-behind-flush");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = window.toMillis();
+            flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            this.flusher = null;
+        }
+    }
+
+    /**
+     * Writes all pending edits; runs periodically, callers needing the edits in the DB
+     * may invoke it directly
+     * @return edits written
+     */
+    public synchronized int flush() {
+        int flushed = 0;
+        while (true) {
+            List<NodeEditBuffer.PendingEdit> batch = buffer.drain(maxBatch);
+            if (batch.isEmpty()) {
+                return flushed;
+            }
+            flushed += write(batch);
+            if (batch.size() < maxBatch) {
+                return flushed;
+            }
+        }
+    }
+
+    /**
+     * @return edits written, without the dropped ones
+     */
+    private int write(List<NodeEditBuffer.PendingEdit> batch) {
+        try {
+            nodeManager.updateAll(batch.stream().map(NodeEditBuffer.PendingEdit::edit).toList());
+        } catch (DataIntegrityViolationException | IllegalArgumentException e) {
+            if (batch.size() == 1) {
+                log.error("Write-behind dropped an edit rejected by the DB: {}", batch.get(0).edit(), e);
+                buffer.completed(batch);
+                return 0;
+            }
+            int half = batch.size() / 2;
+            return write(batch.subList(0, half)) + write(batch.subList(half, batch.size()));
+        }
+        buffer.completed(batch);
+        return batch.size();
+    }
+
+    @PreDestroy
+    public void close() {
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdownNow();
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Write-behind flush on shutdown failed, {} edits stay in the journal", buffer.size(), e);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Write-behind flush failed, {} edits are retried", buffer.size(), e);
+        }
+    }
+}
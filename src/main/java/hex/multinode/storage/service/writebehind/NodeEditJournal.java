@@ -0,0 +1,316 @@
+package hex.multinode.storage.service.writebehind;
+
+import hex.multinode.storage.model.data.ContentBlob;
+import hex.multinode.storage.model.dto.NodeDTO;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of node edits split into numbered segment files.
+ * A record is length, CRC32 and the edit; a torn or corrupted tail ends the segment on replay.
+ * Appends return once the record is forced to disk; appenders arriving during a force
+ * wait for the next one together, so concurrent edits share a single fsync (group commit).
+ */
+@Slf4j
+class NodeEditJournal implements AutoCloseable {
+
+    private static final String PREFIX = "edits-";
+    private static final String SUFFIX = ".journal";
+    /**
+     * Node id, two length-prefixed strings: a title of up to 255 UTF-16 units and the longest content text
+     */
+    static final int MAX_RECORD_BYTES = 2 * Long.BYTES + 2 * Integer.BYTES + 255 * 3 + ContentBlob.MAX_BYTES;
+
+    private final Path dir;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition forced = lock.newCondition();
+    private FileChannel channel;
+    private long segment;
+    /**
+     * Bytes appended and forced since the journal was opened, across segments
+     */
+    private long written;
+    private long synced;
+    private boolean syncing;
+
+    /**
+     * Opens a new segment after the existing ones; call {@link #replay} first to read them
+     */
+    NodeEditJournal(Path dir) {
+        this.dir = dir;
+        try {
+            Files.createDirectories(dir);
+            this.segment = segments().stream().mapToLong(NodeEditJournal::segmentOf).max().orElse(0) + 1;
+            this.channel = open(segment);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads the edits of all closed segments in append order
+     * @param consumer edit and the segment it was read from
+     */
+    void replay(BiConsumer<NodeDTO, Long> consumer) {
+        try {
+            for (Path file : segments()) {
+                long fileSegment = segmentOf(file);
+                if (fileSegment == segment) {
+                    continue;
+                }
+                int records = readSegment(file, edit -> consumer.accept(edit, fileSegment));
+                log.info("Write-behind journal {} replayed: {} edits", file.getFileName(), records);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Appends the edits as one write and waits until they are on disk
+     * @return segment holding the edits
+     */
+    long append(Collection<NodeDTO> edits) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(edits.size() * 256);
+        for (NodeDTO edit : edits) {
+            writeRecord(bytes, edit);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        long end;
+        long appendedTo;
+        lock.lock();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            written += buffer.capacity();
+            end = written;
+            appendedTo = segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+        sync(end);
+        return appendedTo;
+    }
+
+    /**
+     * Starts a new segment, the previous ones hold every edit appended before the call
+     * @return the new segment
+     */
+    long roll() {
+        lock.lock();
+        try {
+            while (syncing) {
+                forced.awaitUninterruptibly();
+            }
+            channel.force(false);
+            channel.close();
+            synced = written;
+            channel = open(++segment);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return segment taking appends
+     */
+    long segment() {
+        lock.lock();
+        try {
+            return segment;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes segments below the given one, their edits are in the DB
+     */
+    void deleteBefore(long firstLive) {
+        try {
+            for (Path file : segments()) {
+                if (segmentOf(file) < firstLive) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            channel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void sync(long end) {
+        lock.lock();
+        try {
+            while (synced < end) {
+                if (syncing) {
+                    forced.awaitUninterruptibly();
+                    continue;
+                }
+                syncing = true;
+                long target = written;
+                FileChannel current = channel;
+                boolean done = false;
+                lock.unlock();
+                try {
+                    current.force(false);
+                    done = true;
+                } finally {
+                    lock.lock();
+                    if (done) {
+                        synced = Math.max(synced, target);
+                    }
+                    syncing = false;
+                    forced.signalAll();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private FileChannel open(long number) throws IOException {
+        return FileChannel.open(dir.resolve(PREFIX + "%016d".formatted(number) + SUFFIX),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private static long segmentOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    private static void writeRecord(ByteArrayOutputStream out, NodeDTO edit) {
+        try {
+            ByteArrayOutputStream payload = new ByteArrayOutputStream(256);
+            DataOutputStream data = new DataOutputStream(payload);
+            UUID id = UUID.fromString(edit.id());
+            data.writeLong(id.getMostSignificantBits());
+            data.writeLong(id.getLeastSignificantBits());
+            writeNullable(data, edit.title());
+            writeNullable(data, edit.contentText());
+            if (payload.size() > MAX_RECORD_BYTES) {
+                throw new IllegalArgumentException("Edit of node " + id + " is too long: " + payload.size() + " bytes");
+            }
+            CRC32 crc = new CRC32();
+            crc.update(payload.toByteArray());
+            DataOutputStream record = new DataOutputStream(out);
+            record.writeInt(payload.size());
+            record.writeInt((int) crc.getValue());
+            payload.writeTo(record);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int readSegment(Path file, Consumer<NodeDTO> consumer) throws IOException {
+        int records = 0;
+        try (InputStream in = Files.newInputStream(file);
+             DataInputStream data = new DataInputStream(new BufferedInputStream(in, 1 << 16))) {
+            while (true) {
+                byte[] payload;
+                int crcValue;
+                try {
+                    int length = data.readInt();
+                    crcValue = data.readInt();
+                    if (length < 2 * Long.BYTES || length > MAX_RECORD_BYTES) {
+                        break;
+                    }
+                    payload = data.readNBytes(length);
+                    if (payload.length < length) {
+                        break;
+                    }
+                } catch (EOFException e) {
+                    break;
+                }
+                CRC32 crc = new CRC32();
+                crc.update(payload);
+                if ((int) crc.getValue() != crcValue) {
+                    log.warn("Write-behind journal {} has a corrupted record after {} edits", file.getFileName(), records);
+                    break;
+                }
+                DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload));
+                UUID id = new UUID(record.readLong(), record.readLong());
+                consumer.accept(NodeDTO.of(id.toString(), readNullable(record), readNullable(record)));
+                records++;
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Length in UTF-8 bytes (-1 for null) and the bytes; writeUTF stops at 64 KB
+     */
+    private static void writeNullable(DataOutputStream data, String value) throws IOException {
+        if (value == null) {
+            data.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        data.writeInt(bytes.length);
+        data.write(bytes);
+    }
+
+    private static String readNullable(DataInputStream data) throws IOException {
+        int length = data.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = data.readNBytes(length);
+        if (bytes.length < length) {
+            throw new EOFException("String of " + length + " bytes is cut at " + bytes.length);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,32 @@
+create table multi_content (
+    id uuid not null,
+    text varchar(1000),
+    illustration_loc varchar(255),
+    version bigint not null,
+    primary key (id)
+);
+
+create table multi_node (
+    id uuid not null,
+    title varchar(255) not null,
+    title_key varchar(255) not null,
+    content_id uuid unique,
+    date_created timestamp(6),
+    date_updated timestamp(6),
+    version bigint not null,
+    primary key (id),
+    constraint fk_multi_node_content foreign key (content_id) references multi_content
+);
+
+create index ix_multi_node_title_id on multi_node (title, id);
+create index ix_multi_node_title_key_id on multi_node (title_key, id);
+
+create table multi_link (
+    id uuid not null,
+    parent_node_id uuid not null,
+    child_node_id uuid not null,
+    choice_text varchar(255) not null,
+    primary key (id),
+    constraint fk_multi_link_parent foreign key (parent_node_id) references multi_node,
+    constraint fk_multi_link_child foreign key (child_node_id) references multi_node
+);
@@ -0,0 +1,10 @@
+create table content_blob (
+    hash varchar(64) not null,
+    codec varchar(8) not null,
+    raw_length integer not null,
+    data varbinary(1048576) not null,
+    primary key (hash)
+);
+
+alter table multi_content add column text_hash varchar(64);
+alter table multi_content add constraint fk_multi_content_blob foreign key (text_hash) references content_blob;
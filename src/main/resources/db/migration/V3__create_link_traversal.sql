@@ -0,0 +1,5 @@
+create table link_traversal (
+    link_id uuid not null,
+    traversals bigint not null,
+    primary key (link_id)
+);
@@ -0,0 +1,6 @@
+create table node_outbox (
+    id uuid not null,
+    node_id uuid not null,
+    payload varbinary(2048) not null,
+    primary key (id)
+);
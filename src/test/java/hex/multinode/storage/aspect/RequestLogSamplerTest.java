@@ -0,0 +1,50 @@
+package hex.multinode.storage.aspect;
+
+import com.example.hex.integration.grpc.CreateNodeResponse;
+import com.example.hex.integration.grpc.FindNodesByTitleResponse;
+import com.example.hex.integration.grpc.NodeProto;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RequestLogSamplerTest {
+
+    private final RequestLogSampler sampler = new RequestLogSampler(
+            new RequestLogProperties(40, 1.0, Map.of("findNodesByTitle", 0.0)));
+
+    @Test
+    public void perEndpointRatesOverrideDefault() {
+        assertTrue(sampler.sampled("createNode"));
+        assertFalse(sampler.sampled("findNodesByTitle"));
+    }
+
+    @Test
+    public void repeatedFieldsAreCounted() {
+        var response = FindNodesByTitleResponse.newBuilder()
+                .addNode(NodeProto.newBuilder().setTitle("Стрекоза"))
+                .addNode(NodeProto.newBuilder().setTitle("Муравей"))
+                .build();
+        assertEquals("FindNodesByTitleResponse{node=[2]}", sampler.summary(response).toString());
+    }
+
+    @Test
+    public void summaryIsCapped() {
+        var response = CreateNodeResponse.newBuilder()
+                .setNode(NodeProto.newBuilder().setText("Попрыгунья Стрекоза лето красное пропела"))
+                .build();
+        assertTrue(sampler.summary(response).toString().startsWith("CreateNodeResponse{node=NodeProto("));
+        assertEquals("а".repeat(40) + "...(100 chars)", sampler.summary("а".repeat(100)).toString());
+    }
+
+    @Test
+    public void longFieldIsCutWhereItIsAppended() {
+        var request = NodeProto.newBuilder()
+                .setTitle("Стрекоза")
+                .setText("Лето красное пропела".repeat(10_000))
+                .build();
+        assertEquals("NodeProto{title=Стрекоза, text=Лето крас...(200000 chars)}",
+                sampler.summary(request).toString());
+    }
+}
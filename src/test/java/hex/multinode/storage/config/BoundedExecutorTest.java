@@ -0,0 +1,51 @@
+package hex.multinode.storage.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoundedExecutorTest {
+
+    @Test
+    public void runsAtMostMaxConcurrencyTasksAtOnce() throws InterruptedException {
+        ExecutorService delegate = Executors.newCachedThreadPool();
+        BoundedExecutor executor = new BoundedExecutor(delegate, 2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(8);
+        for (int i = 0; i < 8; i++) {
+            executor.execute(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        delegate.shutdown();
+        assertEquals(2, maxRunning.get());
+        assertEquals(2, executor.availablePermits());
+    }
+
+    @Test
+    public void failedTaskReleasesPermit() throws InterruptedException {
+        ExecutorService delegate = Executors.newSingleThreadExecutor();
+        BoundedExecutor executor = new BoundedExecutor(delegate, 1);
+        executor.execute(() -> {
+            throw new IllegalStateException();
+        });
+        delegate.shutdown();
+        assertTrue(delegate.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(1, executor.availablePermits());
+    }
+}
@@ -0,0 +1,55 @@
+package hex.multinode.storage.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class BoundedTransactionManagerTest {
+
+    private final PlatformTransactionManager delegate = mock(PlatformTransactionManager.class);
+    private final BoundedTransactionManager transactionManager = new BoundedTransactionManager(delegate, 1);
+
+    @Test
+    public void nestedTransactionsShareThePermit() {
+        when(delegate.getTransaction(any())).thenReturn(new SimpleTransactionStatus(), new SimpleTransactionStatus());
+
+        TransactionStatus outer = transactionManager.getTransaction(TransactionDefinition.withDefaults());
+        TransactionStatus inner = transactionManager.getTransaction(TransactionDefinition.withDefaults());
+        assertEquals(0, transactionManager.availablePermits());
+        transactionManager.commit(inner);
+        assertEquals(0, transactionManager.availablePermits());
+        transactionManager.rollback(outer);
+        assertEquals(1, transactionManager.availablePermits());
+    }
+
+    @Test
+    public void transactionBeyondTheLimitWaits() throws Exception {
+        when(delegate.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        TransactionStatus first = transactionManager.getTransaction(TransactionDefinition.withDefaults());
+
+        CompletableFuture<TransactionStatus> second = CompletableFuture.supplyAsync(() ->
+                transactionManager.getTransaction(TransactionDefinition.withDefaults()));
+        assertThrows(TimeoutException.class, () -> second.get(100, TimeUnit.MILLISECONDS));
+        transactionManager.commit(first);
+        assertNotNull(second.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void failedBeginReleasesThePermit() {
+        when(delegate.getTransaction(any())).thenThrow(new IllegalStateException("no connection"));
+
+        assertThrows(IllegalStateException.class, () ->
+                transactionManager.getTransaction(TransactionDefinition.withDefaults()));
+        assertEquals(1, transactionManager.availablePermits());
+    }
+}
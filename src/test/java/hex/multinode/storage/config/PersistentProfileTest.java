@@ -0,0 +1,69 @@
+package hex.multinode.storage.config;
+
+import hex.multinode.storage.NodeStorageApplication;
+import hex.multinode.storage.model.data.ContentBlob;
+import hex.multinode.storage.model.data.MultiNode;
+import hex.multinode.storage.model.dto.NodeDTO;
+import hex.multinode.storage.service.NodeManager;
+import hex.multinode.storage.service.content.ContentStore;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Flyway schema against the entity mapping (ddl-auto=validate) and the second-level cache
+ */
+@SpringBootTest(classes = {NodeStorageApplication.class, H2JpaTestConfig.class},
+        properties = {"spring.datasource.url=jdbc:h2:mem:persistent;DB_CLOSE_DELAY=-1", "grpc.enabled=false"})
+@ActiveProfiles("persistent")
+@DirtiesContext
+public class PersistentProfileTest {
+
+    @Autowired
+    private NodeManager<MultiNode> nodeManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ContentStore contentStore;
+
+    @Test
+    public void migratedSchemaMatchesEntitiesAndNodesAreCached() {
+        MultiNode node = nodeManager.save(NodeDTO.of("Стрекоза и муравей", "Попрыгунья Стрекоза"));
+        var cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        nodeManager.findById(node.getId().toString());
+        assertTrue(cache.containsEntity(MultiNode.class, node.getId()));
+        assertEquals("Попрыгунья Стрекоза",
+                nodeManager.findById(node.getId().toString()).orElseThrow().getContent().getText());
+
+        String text = "Лето красное пропела; ".repeat(50);
+        MultiNode longText = nodeManager.save(NodeDTO.of("Лето", text));
+        assertEquals(text, nodeManager.findById(longText.getId().toString()).orElseThrow().getContent().getText());
+    }
+
+    @Test
+    public void purgedBlobIsStoredAgainDespiteTheEntityCache() {
+        String text = "Ты все пела? Это дело: ".repeat(50);
+        String hash = ContentBlob.hash(text);
+        MultiNode node = nodeManager.save(NodeDTO.of("Муравей", text));
+        var cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        nodeManager.findById(node.getId().toString());
+        nodeManager.save(NodeDTO.of("Муравей", text));
+        assertTrue(cache.containsEntity(ContentBlob.class, hash));
+
+        nodeManager.deleteById(node.getId().toString());
+        nodeManager.findNodesByTitle("Муравей").forEach(other -> nodeManager.deleteById(other.getId().toString()));
+        assertTrue(contentStore.purge() >= 1);
+        assertFalse(cache.containsEntity(ContentBlob.class, hash));
+
+        MultiNode again = nodeManager.save(NodeDTO.of("Муравей", text));
+        assertEquals(text, nodeManager.findById(again.getId().toString()).orElseThrow().getContent().getText());
+    }
+}
@@ -0,0 +1,101 @@
+package hex.multinode.storage.integration.kafka;
+
+import hex.multinode.storage.model.data.MultiNode;
+import hex.multinode.storage.model.dto.NodeDTO;
+import hex.multinode.storage.model.generator.UUIDV7Generator;
+import hex.multinode.storage.service.NodeManager;
+import hex.multinode.storage.service.writebehind.NodeEditBuffer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+public class KafkaListenersTest {
+
+    @Test
+    public void coalesceKeepsLastEditPerNode() {
+        String firstId = UUIDV7Generator.generateUuidV7().toString();
+        String secondId = UUIDV7Generator.generateUuidV7().toString();
+        List<NodeDTO> edits = List.of(
+                NodeDTO.of(firstId, "Стрекоза", "1"),
+                NodeDTO.of(secondId, "Муравей", "1"),
+                NodeDTO.of(firstId.toUpperCase(), "Стрекоза и муравей", "2"));
+
+        List<NodeDTO> coalesced = KafkaListeners.coalesce(edits);
+
+        assertEquals(2, coalesced.size());
+        assertEquals(secondId, coalesced.get(0).id());
+        assertEquals("Стрекоза и муравей", coalesced.get(1).title());
+    }
+
+    @Test
+    public void coalesceChainsVersionedEdits() {
+        String id = UUIDV7Generator.generateUuidV7().toString();
+        List<NodeDTO> chained = KafkaListeners.coalesce(List.of(
+                NodeDTO.of(id, "Стрекоза", "1", 3L),
+                NodeDTO.of(id, "Стрекоза", "2", 4L),
+                NodeDTO.of(id, "Стрекоза", "3", 5L)));
+        assertEquals(List.of(NodeDTO.of(id, "Стрекоза", "3", 3L)), chained);
+
+        List<NodeDTO> stale = KafkaListeners.coalesce(List.of(
+                NodeDTO.of(id, "Стрекоза", "1", 3L),
+                NodeDTO.of(id, "Муравей", "2", 3L),
+                NodeDTO.of(id, "Муравей", "3", 7L)));
+        assertEquals(List.of(NodeDTO.of(id, "Стрекоза", "1", 3L)), stale);
+        assertNull(KafkaListeners.coalesce(List.of(
+                NodeDTO.of(id, "Стрекоза", "1", 3L),
+                NodeDTO.of(id, "Муравей", "2"))).get(0).version());
+    }
+
+    @Test
+    public void coalesceKeepsUnconditionalEditBeforeVersionedOne() {
+        String id = UUIDV7Generator.generateUuidV7().toString();
+        List<NodeDTO> coalesced = KafkaListeners.coalesce(List.of(
+                NodeDTO.of(id, "Стрекоза", "1"),
+                NodeDTO.of(id, "Муравей", "2", 3L),
+                NodeDTO.of(id, "Муравей", "3", 4L)));
+        assertEquals(List.of(NodeDTO.of(id, "Стрекоза", "1")), coalesced);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void conflictingChunkIsRetriedThenFails() {
+        NodeManager<MultiNode> nodeManager = mock(NodeManager.class);
+        when(nodeManager.updateAll(anyCollection()))
+                .thenThrow(new OptimisticLockingFailureException("concurrent write"))
+                .thenReturn(List.of(new MultiNode("Стрекоза")))
+                .thenThrow(new OptimisticLockingFailureException("concurrent write"));
+        var registry = new SimpleMeterRegistry();
+        var records = List.of(new ConsumerRecord<>("multinode-edit-rq", 0, 0L, "key",
+                NodeDTO.of(UUIDV7Generator.generateUuidV7().toString(), "Стрекоза", "")));
+        try (var pool = new KeyedWorkerPool(0)) {
+            var listeners = new KafkaListeners(nodeManager, pool, new NodeEditConsumerMetrics(registry),
+                    mock(NodeEditBuffer.class), 2, Duration.ZERO);
+            listeners.onMessageUpdate(records, mock(Consumer.class));
+            verify(nodeManager, times(2)).updateAll(anyCollection());
+            assertThrows(OptimisticLockingFailureException.class, () ->
+                    listeners.onMessageUpdate(records, mock(Consumer.class)));
+        }
+        assertEquals(2, registry.counter("nodestorage.kafka.edit.retries").count());
+        assertEquals(1, registry.counter("nodestorage.kafka.edit.failures").count());
+    }
+
+    @Test
+    public void coalesceDropsInvalidEdits() {
+        List<NodeDTO> edits = Arrays.asList(
+                null,
+                NodeDTO.of("Стрекоза", "1"),
+                NodeDTO.of("000", "Муравей", "1"));
+
+        assertTrue(KafkaListeners.coalesce(edits).isEmpty());
+    }
+}
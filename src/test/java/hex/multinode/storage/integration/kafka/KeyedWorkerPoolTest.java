@@ -0,0 +1,52 @@
+package hex.multinode.storage.integration.kafka;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KeyedWorkerPoolTest {
+
+    @Test
+    public void sameKeyAlwaysOnSameWorker() {
+        try (var pool = new KeyedWorkerPool(4)) {
+            assertEquals(pool.workerOf("Стрекоза"), pool.workerOf("Стрекоза"));
+            assertTrue(pool.workerOf("Муравей") < pool.size());
+        }
+    }
+
+    @Test
+    public void executeAllRunsEveryChunkOnItsWorker() {
+        Map<String, String> threads = new ConcurrentHashMap<>();
+        try (var pool = new KeyedWorkerPool(2)) {
+            pool.executeAll(Map.of(0, List.of("a", "b"), 1, List.of("c")), chunk ->
+                    chunk.forEach(item -> threads.put(item, Thread.currentThread().getName())));
+        }
+        assertEquals(3, threads.size());
+        assertEquals(threads.get("a"), threads.get("b"));
+        assertNotEquals(threads.get("a"), threads.get("c"));
+    }
+
+    @Test
+    public void executeAllRethrowsTaskFailure() {
+        try (var pool = new KeyedWorkerPool(2)) {
+            assertThrows(IllegalStateException.class, () ->
+                    pool.executeAll(Map.of(0, List.of("a")), chunk -> {
+                        throw new IllegalStateException(chunk.get(0));
+                    }));
+        }
+    }
+
+    @Test
+    public void withoutWorkersRunsOnCallerThread() {
+        Map<String, String> threads = new ConcurrentHashMap<>();
+        try (var pool = new KeyedWorkerPool(0)) {
+            pool.executeAll(Map.of(0, List.of("a")), chunk ->
+                    threads.put(chunk.get(0), Thread.currentThread().getName()));
+        }
+        assertEquals(Thread.currentThread().getName(), threads.get("a"));
+    }
+}
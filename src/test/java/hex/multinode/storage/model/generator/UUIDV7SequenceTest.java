@@ -0,0 +1,75 @@
+package hex.multinode.storage.model.generator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UUIDV7SequenceTest {
+
+    private final UUIDV7Sequence sequence = new UUIDV7Sequence();
+
+    @Test
+    public void versionVariantAndTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID id = sequence.next();
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        long timestamp = id.getMostSignificantBits() >>> 16;
+        assertTrue(timestamp >= before && timestamp <= System.currentTimeMillis() + 1);
+    }
+
+    @Test
+    public void idsAreStrictlyIncreasing() {
+        UUID previous = sequence.next();
+        for (int i = 0; i < 100_000; i++) {
+            UUID id = sequence.next();
+            assertTrue(compareUnsigned(previous, id) < 0, previous + " >= " + id);
+            previous = id;
+        }
+    }
+
+    @Test
+    public void blockIsConsecutiveAndFollowedByGreaterIds() {
+        UUID before = sequence.next();
+        UUIDV7Sequence.Block block = sequence.nextBlock(3);
+        UUID first = block.next();
+        UUID second = block.next();
+        UUID third = block.next();
+        assertFalse(block.hasNext());
+        assertThrows(IllegalStateException.class, block::next);
+
+        assertTrue(compareUnsigned(before, first) < 0);
+        assertEquals(first.getMostSignificantBits() + 1, second.getMostSignificantBits());
+        assertEquals(second.getMostSignificantBits() + 1, third.getMostSignificantBits());
+        assertTrue(compareUnsigned(third, sequence.next()) < 0);
+        assertThrows(IllegalArgumentException.class, () -> sequence.nextBlock(0));
+    }
+
+    @Test
+    public void uniqueAcrossThreads() throws InterruptedException {
+        Set<UUID> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    ids.add(sequence.next());
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(40_000, ids.size());
+    }
+
+    private static int compareUnsigned(UUID left, UUID right) {
+        int result = Long.compareUnsigned(left.getMostSignificantBits(), right.getMostSignificantBits());
+        return result != 0 ? result : Long.compareUnsigned(left.getLeastSignificantBits(), right.getLeastSignificantBits());
+    }
+}
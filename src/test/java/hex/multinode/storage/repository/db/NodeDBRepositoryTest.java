@@ -5,6 +5,7 @@ import hex.multinode.storage.config.H2JpaTestConfig;
 import hex.multinode.storage.model.data.MultiContent;
 import hex.multinode.storage.model.data.MultiNode;
 import hex.multinode.storage.model.generator.UUIDV7Generator;
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -79,6 +80,13 @@ public class NodeDBRepositoryTest {
         assertEquals(initialContentText, node.get().getContent().getText());
     }
 
+    @Test
+    public void contentIsLoadedOnlyByFindersReturningIt() {
+        var nodeId = findByTitleAndAssertSingleNode(initialNodeTitle, initialContentText).getId();
+        assertTrue(Hibernate.isInitialized(nodeRepository.findById(nodeId).orElseThrow().getContent()));
+        assertFalse(Hibernate.isInitialized(nodeRepository.findNodeById(nodeId).orElseThrow().getContent()));
+    }
+
     @Test
     public void cantFindByNotExistingId() {
         var nodeId = UUIDV7Generator.generateUuidV7();
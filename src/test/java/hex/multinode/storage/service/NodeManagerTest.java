@@ -2,21 +2,35 @@ package hex.multinode.storage.service;
 
 import hex.multinode.storage.NodeStorageApplication;
 import hex.multinode.storage.config.H2JpaTestConfig;
+import hex.multinode.storage.config.StatementCounter;
 import hex.multinode.storage.model.data.MultiContent;
 import hex.multinode.storage.model.data.MultiLink;
 import hex.multinode.storage.model.data.MultiNode;
+import hex.multinode.storage.model.dto.GraphImportDTO;
+import hex.multinode.storage.model.dto.LinkDTO;
 import hex.multinode.storage.model.dto.NodeDTO;
+import hex.multinode.storage.model.dto.NodeFields;
+import hex.multinode.storage.model.dto.NodeSnapshot;
+import hex.multinode.storage.model.dto.NodeView;
+import hex.multinode.storage.model.dto.TextSearchHit;
+import hex.multinode.storage.model.dto.TitleMatch;
 import hex.multinode.storage.model.generator.UUIDV7Generator;
 import hex.multinode.storage.repository.db.LinkDBRepository;
 import hex.multinode.storage.repository.db.NodeDBRepository;
+import hex.multinode.storage.service.search.NodeTextIndex;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -26,6 +40,9 @@ public class NodeManagerTest {
     private final NodeManager<MultiNode> nodeManager;
     private final NodeDBRepository nodeRepository;
     private final LinkDBRepository linkRepository;
+    private final MeterRegistry meterRegistry;
+    private final StatementCounter statementCounter;
+    private final NodeTextIndex textIndex;
 
     private final String initialNodeTitle = "Стрекоза и муравей";
     private final String initialContentText = """
@@ -36,10 +53,16 @@ public class NodeManagerTest {
     @Autowired
     public NodeManagerTest(NodeManager nodeManager,
                            NodeDBRepository nodeRepository,
-                           LinkDBRepository linkRepository) {
+                           LinkDBRepository linkRepository,
+                           MeterRegistry meterRegistry,
+                           StatementCounter statementCounter,
+                           NodeTextIndex textIndex) {
         this.nodeManager = nodeManager;
         this.nodeRepository = nodeRepository;
         this.linkRepository = linkRepository;
+        this.meterRegistry = meterRegistry;
+        this.statementCounter = statementCounter;
+        this.textIndex = textIndex;
     }
 
     @BeforeEach
@@ -96,6 +119,262 @@ public class NodeManagerTest {
         assertLinks(initialNodeTitle, newNodeTitle, answer);
     }
 
+    @Test
+    public void findForksAndRootsAfterFork() {
+        String answer = "some answer";
+        var parentNode = findByTitleAndAssertSingleNode(initialNodeTitle);
+        String parentId = parentNode.getId().toString();
+        nodeManager.fork(parentId, NodeDTO.of(initialNodeTitle + "[1]", ""), answer);
+        var childNode = findByTitleAndAssertSingleNode(initialNodeTitle + "[1]");
+
+        var forks = nodeManager.findForks(parentId);
+        assertEquals(1, forks.size());
+        assertEquals(childNode.getId(), forks.get(0).childNodeId());
+        assertEquals(answer, forks.get(0).choiceText());
+
+        var roots = nodeManager.findRoots(childNode.getId().toString());
+        assertEquals(1, roots.size());
+        assertEquals(parentNode.getId(), roots.get(0).parentNodeId());
+
+        nodeManager.deleteById(childNode.getId().toString());
+        assertTrue(nodeManager.findForks(parentId).isEmpty());
+        assertThrows(NoSuchElementException.class, () ->
+                nodeManager.findRoots(childNode.getId().toString()));
+    }
+
+    @Test
+    public void findSnapshotSeesUpdatesAndForks() {
+        var node = nodeManager.save(NodeDTO.of("Ворона и лисица", initialContentText));
+        String nodeId = node.getId().toString();
+        var snapshot = nodeManager.findSnapshotById(nodeId).orElseThrow();
+        assertEquals(initialContentText, snapshot.text());
+        assertTrue(snapshot.forks().isEmpty());
+        assertEquals(node.getDateCreated(), snapshot.dateCreated());
+        assertNotNull(snapshot.dateUpdated());
+
+        nodeManager.update(NodeDTO.of(nodeId, "Ворона и лисица", "Вороне где-то бог послал кусочек сыру;"));
+        nodeManager.fork(nodeId, NodeDTO.of("Лисица", ""), "some answer");
+
+        snapshot = nodeManager.findSnapshotById(nodeId).orElseThrow();
+        assertEquals("Вороне где-то бог послал кусочек сыру;", snapshot.text());
+        assertEquals(1, snapshot.forks().size());
+
+        nodeManager.deleteById(snapshot.forks().get(0).childNodeId().toString());
+        assertTrue(nodeManager.findSnapshotById(nodeId).orElseThrow().forks().isEmpty());
+        nodeManager.deleteById(nodeId);
+        assertTrue(nodeManager.findSnapshotById(nodeId).isEmpty());
+    }
+
+    @Test
+    public void findNodesByTitlePageByPage() {
+        for (int i = 0; i < 4; i++) {
+            nodeManager.save(NodeDTO.of(initialNodeTitle, "[" + i + "]"));
+        }
+        var firstPage = nodeManager.findNodesByTitle(initialNodeTitle, null, 2);
+        var secondPage = nodeManager.findNodesByTitle(initialNodeTitle,
+                firstPage.get(1).id().toString(), 2);
+        var lastPage = nodeManager.findNodesByTitle(initialNodeTitle,
+                secondPage.get(1).id().toString(), 2);
+
+        assertEquals(2, firstPage.size());
+        assertEquals(2, secondPage.size());
+        assertEquals(1, lastPage.size());
+        Set<UUID> ids = new HashSet<>();
+        Stream.of(firstPage, secondPage, lastPage).flatMap(List::stream)
+                .forEach(node -> ids.add(node.id()));
+        assertEquals(5, ids.size());
+        assertThrows(IllegalArgumentException.class, () ->
+                nodeManager.findNodesByTitle(initialNodeTitle, null, 0));
+        assertThrows(IllegalArgumentException.class, () ->
+                nodeManager.findNodesByTitle(initialNodeTitle, null, NodeManager.MAX_PAGE_SIZE + 1));
+    }
+
+    @Test
+    public void findViewsByTitleWithContentAndDates() {
+        var node = nodeManager.save(NodeDTO.of("Квартет", "Проказница-Мартышка"));
+        nodeManager.save(NodeDTO.of("Квартет", null));
+
+        var views = nodeManager.findViewsByTitle("Квартет");
+        assertEquals(2, views.size());
+        var view = views.stream().filter(v -> v.id().equals(node.getId())).findFirst().orElseThrow();
+        assertEquals("Проказница-Мартышка", view.text());
+        assertNotNull(view.dateCreated());
+        assertNotNull(view.dateUpdated());
+    }
+
+    @Test
+    public void viewsWithoutTextDoNotReadContent() {
+        var node = nodeManager.save(NodeDTO.of("Квартет", "Проказница-Мартышка"));
+        NodeFields header = NodeFields.of(List.of("id", "title", "dateUpdated"));
+
+        var views = nodeManager.findViewsByTitle("Квартет", header);
+        assertEquals(1, views.size());
+        assertEquals(node.getId(), views.get(0).id());
+        assertNull(views.get(0).text());
+        assertNotNull(views.get(0).dateUpdated());
+        assertNull(nodeManager.findNodesByTitle("Квартет", null, 10, header).get(0).text());
+        assertNull(nodeManager.searchByTitle("квартет", TitleMatch.IGNORE_CASE, null, 10, header)
+                .nodes().get(0).text());
+        assertEquals("Проказница-Мартышка", nodeManager.findViewsByTitle("Квартет",
+                NodeFields.of(List.of("text"))).get(0).text());
+        assertThrows(IllegalArgumentException.class, () -> NodeFields.of(List.of("title", "author")));
+    }
+
+    @Test
+    public void searchByTitleModes() {
+        nodeManager.save(NodeDTO.of("стрекоза в поле", ""));
+        nodeManager.save(NodeDTO.of("Стрекоза_2", ""));
+        nodeManager.save(NodeDTO.of("Муравей", ""));
+
+        assertEquals(1, nodeManager.searchByTitle(initialNodeTitle, TitleMatch.EXACT, null, 10).nodes().size());
+        assertEquals(1, nodeManager.searchByTitle("СТРЕКОЗА И МУРАВЕЙ", TitleMatch.IGNORE_CASE, null, 10).nodes().size());
+        assertEquals(2, nodeManager.searchByTitle("Стрекоза", TitleMatch.PREFIX, null, 10).nodes().size());
+        assertEquals(3, nodeManager.searchByTitle("СТРЕКОЗА", TitleMatch.PREFIX_IGNORE_CASE, null, 10).nodes().size());
+        assertEquals(List.of("Стрекоза_2"), nodeManager.searchByTitle("Стрекоза_", TitleMatch.PREFIX, null, 10)
+                .nodes().stream().map(NodeView::title).toList());
+        assertEquals(2, nodeManager.searchByTitle("МУРАВЕЙ", TitleMatch.CONTAINS, null, 10).nodes().size());
+    }
+
+    @Test
+    public void searchByTitlePageByPage() {
+        nodeManager.save(NodeDTO.of("стрекоза в поле", ""));
+        nodeManager.save(NodeDTO.of("Стрекоза и муравей", ""));
+
+        var firstPage = nodeManager.searchByTitle("стрекоза", TitleMatch.PREFIX_IGNORE_CASE, null, 2);
+        assertEquals(2, firstPage.nodes().size());
+        assertNotNull(firstPage.nextPageToken());
+        var lastPage = nodeManager.searchByTitle("стрекоза", TitleMatch.PREFIX_IGNORE_CASE, firstPage.nextPageToken(), 2);
+        assertEquals(1, lastPage.nodes().size());
+        assertNull(lastPage.nextPageToken());
+
+        List<NodeView> nodes = Stream.of(firstPage, lastPage).flatMap(page -> page.nodes().stream()).toList();
+        assertEquals(3, nodes.stream().map(NodeView::id).distinct().count());
+        assertEquals("стрекоза в поле", nodes.get(0).title());
+        assertThrows(IllegalArgumentException.class, () ->
+                nodeManager.searchByTitle("стрекоза", TitleMatch.PREFIX, "not-a-token", 2));
+    }
+
+    @Test
+    public void searchTextFollowsSavesUpdatesAndDeletes() {
+        var inTitle = nodeManager.save(NodeDTO.of("Кузнечик", "Сидел в траве"));
+        var inText = nodeManager.save(NodeDTO.of("Луг", "В траве сидел кузнечик, совсем как огуречик"));
+        textIndex.refresh();
+
+        var firstPage = nodeManager.search("кузнечики", null, 1);
+        assertEquals(List.of(inTitle.getId()), firstPage.hits().stream().map(TextSearchHit::id).toList());
+        assertNotNull(firstPage.nextPageToken());
+        var lastPage = nodeManager.search("кузнечики", firstPage.nextPageToken(), 1);
+        assertEquals(List.of(inText.getId()), lastPage.hits().stream().map(TextSearchHit::id).toList());
+        assertEquals(0, nodeManager.search("кузнечики", lastPage.nextPageToken(), 1).hits().size());
+
+        nodeManager.updateAll(List.of(NodeDTO.of(inText.getId().toString(), "Луг", "Зелененький он был")));
+        nodeManager.deleteById(inTitle.getId().toString());
+        textIndex.refresh();
+        assertTrue(nodeManager.search("кузнечик", null, 10).hits().isEmpty());
+        assertEquals("Луг", nodeManager.search("зелененький", null, 10).hits().get(0).title());
+        assertThrows(IllegalArgumentException.class, () -> nodeManager.search("кузнечик", "not-a-token", 10));
+    }
+
+    @Test
+    public void managerCallsAndStatementsAreMeasured() {
+        long mark = statementCounter.mark();
+        nodeManager.save(NodeDTO.of("Мартышка и очки", "К старости Мартышка"));
+        assertTrue(statementCounter.mark() > mark);
+        assertThrows(NoSuchElementException.class, () ->
+                nodeManager.deleteById(UUIDV7Generator.generateUuidV7().toString()));
+
+        var saves = meterRegistry.find("nodestorage.manager.calls")
+                .tags("method", "save", "exception", "none").timer();
+        var failedDeletes = meterRegistry.find("nodestorage.manager.calls")
+                .tags("method", "deleteById", "exception", "NoSuchElementException").timer();
+        assertNotNull(saves);
+        assertTrue(saves.count() > 0);
+        assertNotNull(failedDeletes);
+        assertTrue(failedDeletes.count() > 0);
+    }
+
+    @Test
+    public void importGraphWithTempAndExistingIds() {
+        var existingNode = findByTitleAndAssertSingleNode(initialNodeTitle);
+        String existingId = existingNode.getId().toString();
+        var graph = new GraphImportDTO(
+                List.of(new GraphImportDTO.Node("1", "Ворона и лисица", "Вороне где-то бог послал кусочек сыру;"),
+                        new GraphImportDTO.Node("2", "Лисица", "Лисица видит сыр"),
+                        new GraphImportDTO.Node("3", "Ворона", "Ворона каркнула во всё воронье горло")),
+                List.of(new GraphImportDTO.Link(existingId, "1", "Другая басня"),
+                        new GraphImportDTO.Link("1", "2", "Лисица"),
+                        new GraphImportDTO.Link("1", "3", "Ворона"),
+                        new GraphImportDTO.Link("2", "3", "Лесть")));
+
+        var ids = nodeManager.importGraph(graph);
+
+        assertEquals(3, ids.size());
+        findByIdAndAssertSingleNode(ids.get("2"), "Лисица", "Лисица видит сыр");
+        assertEquals(ids.get("1"), nodeManager.findForks(existingId).get(0).childNodeId());
+        var forks = nodeManager.findForks(ids.get("1").toString());
+        assertEquals(List.of(ids.get("2"), ids.get("3")), forks.stream().map(LinkDTO::childNodeId).toList());
+        assertEquals(2, linkRepository.findLinksByChildNodeId(ids.get("3")).size());
+    }
+
+    @Test
+    public void walkByChoiceIndexesAndLinkIds() {
+        var graph = new GraphImportDTO(
+                List.of(new GraphImportDTO.Node("1", "Стрекоза", "Лето красное пропела"),
+                        new GraphImportDTO.Node("2", "Муравей", "Кумушка, мне странно это"),
+                        new GraphImportDTO.Node("3", "Муравей", "Муравей ее жалеет")),
+                List.of(new GraphImportDTO.Link("1", "2", "Отказать"),
+                        new GraphImportDTO.Link("1", "3", "Помочь"),
+                        new GraphImportDTO.Link("3", "1", "Снова лето")));
+        var ids = nodeManager.importGraph(graph);
+        String startId = ids.get("1").toString();
+        String backLinkId = nodeManager.findForks(ids.get("3").toString()).get(0).id().toString();
+
+        var path = nodeManager.walk(startId, List.of("1", backLinkId, "0"));
+
+        assertEquals(List.of(ids.get("1"), ids.get("3"), ids.get("1"), ids.get("2")),
+                path.nodes().stream().map(NodeSnapshot::id).toList());
+        assertEquals(List.of("Помочь", "Снова лето", "Отказать"),
+                path.choices().stream().map(LinkDTO::choiceText).toList());
+        assertEquals("Муравей ее жалеет", path.nodes().get(1).text());
+
+        assertThrows(IllegalArgumentException.class, () -> nodeManager.walk(startId, List.of("2")));
+        assertEquals(1, nodeManager.walk(startId, List.of()).nodes().size());
+    }
+
+    @Test
+    public void findForkSnapshotsInChoiceOrder() {
+        var graph = new GraphImportDTO(
+                List.of(new GraphImportDTO.Node("1", "Стрекоза", "Лето красное пропела"),
+                        new GraphImportDTO.Node("2", "Муравей", "Кумушка, мне странно это"),
+                        new GraphImportDTO.Node("3", "Муравей", "Муравей ее жалеет")),
+                List.of(new GraphImportDTO.Link("1", "3", "Помочь"),
+                        new GraphImportDTO.Link("1", "2", "Отказать"),
+                        new GraphImportDTO.Link("1", "3", "Пожалеть")));
+        var ids = nodeManager.importGraph(graph);
+        nodeManager.update(NodeDTO.of(ids.get("2").toString(), "Муравей", "Ты все пела? Это дело"));
+
+        var forks = nodeManager.findForkSnapshots(ids.get("1").toString(), 10);
+
+        assertEquals(List.of(ids.get("3"), ids.get("2")), forks.stream().map(NodeSnapshot::id).toList());
+        assertEquals("Ты все пела? Это дело", forks.get(1).text());
+        assertEquals(1, nodeManager.findForkSnapshots(ids.get("1").toString(), 1).size());
+        assertTrue(nodeManager.findForkSnapshots(ids.get("2").toString(), 10).isEmpty());
+    }
+
+    @Test
+    public void cantImportGraphWithUnknownNodes() {
+        var duplicateIds = new GraphImportDTO(
+                List.of(new GraphImportDTO.Node("1", "Ворона", ""), new GraphImportDTO.Node("1", "Лисица", "")),
+                List.of());
+        assertThrows(IllegalArgumentException.class, () -> nodeManager.importGraph(duplicateIds));
+
+        var unknownNode = new GraphImportDTO(
+                List.of(new GraphImportDTO.Node("1", "Ворона", "")),
+                List.of(new GraphImportDTO.Link("1", UUIDV7Generator.generateUuidV7().toString(), "Лисица")));
+        assertThrows(NoSuchElementException.class, () -> nodeManager.importGraph(unknownNode));
+        assertTrue(nodeManager.findNodesByTitle("Ворона").isEmpty());
+    }
+
     private void assertLinks(String parentNodeTitle, String childNodeTitle, String answer) {
         var childNode = findByTitleAndAssertSingleNode(childNodeTitle);
         var roots = linkRepository.findLinksByChildNodeId(childNode.getId());
@@ -204,6 +483,59 @@ public class NodeManagerTest {
                 nodeManager.update(nodeDTO));
     }
 
+    @Test
+    public void updateAllDTOsSkipsNotExistingIds() {
+        var node = findByTitleAndAssertSingleNode(initialNodeTitle);
+        String newNodeTitle = "Ворона и лисица";
+        String newContentText = """
+                Уж сколько раз твердили миру,
+                Что лесть гнусна, вредна; но только все не впрок,
+                """;
+        var notExistingId = UUIDV7Generator.generateUuidV7().toString();
+        var updatedNodes = nodeManager.updateAll(List.of(
+                NodeDTO.of(node.getId().toString(), newNodeTitle, newContentText),
+                NodeDTO.of(notExistingId, "", "")));
+        assertEquals(1, updatedNodes.size());
+        findByIdAndAssertSingleNode(node.getId(), newNodeTitle, newContentText);
+    }
+
+    @Test
+    public void updateWithExpectedVersion() {
+        var node = findByTitleAndAssertSingleNode(initialNodeTitle);
+        long version = node.getVersion();
+        String id = node.getId().toString();
+
+        var contentEdited = nodeManager.update(NodeDTO.of(id, initialNodeTitle, "Лето красное пропела", version));
+        assertEquals(version + 1, contentEdited.getVersion());
+        assertTrue(contentEdited.getDateUpdated().isAfter(node.getDateUpdated()));
+        var titleEdited = nodeManager.update(NodeDTO.of(id, "Стрекоза", "Лето красное пропела", version + 1));
+        assertEquals(version + 2, titleEdited.getVersion());
+        assertEquals(version + 2, nodeManager.findSnapshotById(id).orElseThrow().version());
+
+        assertThrows(OptimisticLockingFailureException.class, () ->
+                nodeManager.update(NodeDTO.of(id, "Муравей", "", version)));
+        assertEquals(version + 3, nodeManager.update(NodeDTO.of(id, "Муравей", "", null)).getVersion());
+    }
+
+    @Test
+    public void updateAllSkipsStaleVersions() {
+        var node = findByTitleAndAssertSingleNode(initialNodeTitle);
+        var other = nodeManager.save(NodeDTO.of("Муравей", ""));
+        var updatedNodes = nodeManager.updateAll(List.of(
+                NodeDTO.of(node.getId().toString(), "Стрекоза", "", node.getVersion() + 1),
+                NodeDTO.of(other.getId().toString(), "Муравей", "Трудится", other.getVersion())));
+        assertEquals(List.of(other.getId()), updatedNodes.stream().map(MultiNode::getId).toList());
+        findByIdAndAssertSingleNode(node.getId(), initialNodeTitle, initialContentText);
+    }
+
+    @Test
+    public void concurrentEditOfLoadedNodeConflicts() {
+        var node = findByTitleAndAssertSingleNode(initialNodeTitle);
+        nodeManager.update(NodeDTO.of(node.getId().toString(), "Стрекоза", "Зима катит в глаза"));
+        node.setTitle("Муравей");
+        assertThrows(OptimisticLockingFailureException.class, () -> nodeManager.save(node));
+    }
+
     @Test
     public void deleteByExistingId() {
         var node = findByTitleAndAssertSingleNode(initialNodeTitle);
@@ -0,0 +1,56 @@
+package hex.multinode.storage.service.cache;
+
+import hex.multinode.storage.model.dto.NodeView;
+import hex.multinode.storage.repository.db.NodeDBRepository;
+import hex.multinode.storage.service.graph.StoryGraphIndex;
+import hex.multinode.storage.service.snapshot.StorySnapshotStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+public class NodeCacheTest {
+
+    private final NodeDBRepository nodeRepository = mock(NodeDBRepository.class);
+    private final NodeCache nodeCache = new NodeCache(nodeRepository, mock(StoryGraphIndex.class),
+            mock(StorySnapshotStore.class), new SimpleMeterRegistry(), 100, Duration.ZERO);
+
+    // ids of different invalidation stripes
+    private final UUID first = new UUID(0, 1);
+    private final UUID second = new UUID(0, 2);
+
+    @Test
+    public void bulkLoadCachesExistingNodes() {
+        when(nodeRepository.findViewsByIdIn(anyCollection())).thenReturn(List.of(view(first, "Стрекоза")));
+
+        assertEquals("Стрекоза", nodeCache.getAll(List.of(first, second)).get(first).title());
+        assertTrue(nodeCache.contains(first));
+        assertFalse(nodeCache.contains(second));
+
+        nodeCache.getAll(List.of(first));
+        verify(nodeRepository, times(1)).findViewsByIdIn(anyCollection());
+    }
+
+    @Test
+    public void nodeInvalidatedDuringBulkLoadIsNotCached() {
+        when(nodeRepository.findViewsByIdIn(anyCollection())).thenAnswer(invocation -> {
+            // the change commits while its old row is being read
+            nodeCache.invalidate(first);
+            return List.of(view(first, "Стрекоза"), view(second, "Муравей"));
+        });
+
+        assertEquals(2, nodeCache.getAll(List.of(first, second)).size());
+        assertFalse(nodeCache.contains(first));
+        assertTrue(nodeCache.contains(second));
+    }
+
+    private static NodeView view(UUID id, String title) {
+        return new NodeView(id, title, null, null, null, 0);
+    }
+}
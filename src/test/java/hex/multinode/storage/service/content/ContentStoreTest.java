@@ -0,0 +1,100 @@
+package hex.multinode.storage.service.content;
+
+import hex.multinode.storage.NodeStorageApplication;
+import hex.multinode.storage.config.H2JpaTestConfig;
+import hex.multinode.storage.model.data.ContentBlob;
+import hex.multinode.storage.model.data.MultiNode;
+import hex.multinode.storage.model.dto.NodeDTO;
+import hex.multinode.storage.repository.db.NodeDBRepository;
+import hex.multinode.storage.service.NodeManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HexFormat;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = {NodeStorageApplication.class, H2JpaTestConfig.class})
+public class ContentStoreTest {
+
+    private static final String FABLE = "Попрыгунья Стрекоза лето красное пропела; оглянуться не успела, "
+            + "как зима катит в глаза. ";
+
+    @Autowired
+    private NodeManager<MultiNode> nodeManager;
+
+    @Autowired
+    private NodeDBRepository nodeRepository;
+
+    @Autowired
+    private ContentStore contentStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void blobIsCompressedWhenThatPays() {
+        String text = FABLE.repeat(10);
+        ContentBlob compressed = ContentBlob.of(text);
+        assertEquals(ContentBlob.Codec.LZ4, compressed.getCodec());
+        assertTrue(compressed.getData().length < compressed.getRawLength() / 2);
+        assertEquals(text, compressed.text());
+
+        byte[] noise = new byte[600];
+        new Random(7).nextBytes(noise);
+        String random = HexFormat.of().formatHex(noise);
+        ContentBlob stored = ContentBlob.of(random);
+        assertEquals(ContentBlob.Codec.STORED, stored.getCodec());
+        assertEquals(random, stored.text());
+        assertEquals(ContentBlob.hash(random), stored.getHash());
+    }
+
+    @Test
+    public void equalLongTextsShareOneBlobAndShortTextsStayInline() {
+        String text = FABLE.repeat(100);
+        MultiNode first = nodeManager.save(NodeDTO.of("Стрекоза", text));
+        MultiNode second = nodeManager.save(NodeDTO.of("Стрекоза", FABLE.repeat(50)));
+        nodeManager.update(NodeDTO.of(second.getId().toString(), "Муравей", text));
+        MultiNode inline = nodeManager.save(NodeDTO.of("Муравей", "Зима"));
+
+        String hash = ContentBlob.hash(text);
+        assertEquals(2, references(hash));
+        assertEquals(1, blobs(hash));
+        assertTrue(text.length() > 1000);
+        MultiNode found = nodeManager.findById(first.getId().toString()).orElseThrow();
+        assertEquals(hash, found.getContent().getBlob().getHash());
+        assertEquals(text, found.getContent().getText());
+        assertEquals(text, nodeRepository.findViewById(second.getId()).orElseThrow().text());
+        assertEquals(text, nodeManager.findSnapshotById(second.getId().toString()).orElseThrow().text());
+        assertNull(nodeManager.findById(inline.getId().toString()).orElseThrow().getContent().getBlob());
+        assertEquals("Зима", nodeRepository.findViewById(inline.getId()).orElseThrow().text());
+    }
+
+    @Test
+    public void unreferencedBlobsArePurged() {
+        String text = FABLE.repeat(20) + "Муравей";
+        String hash = ContentBlob.hash(text);
+        MultiNode node = nodeManager.save(NodeDTO.of("Муравей", text));
+        contentStore.purge();
+        assertEquals(1, blobs(hash));
+
+        nodeManager.update(NodeDTO.of(node.getId().toString(), "Муравей", "Ты все пела? Это дело"));
+        assertEquals(0, references(hash));
+        assertTrue(contentStore.purge() >= 1);
+        assertEquals(0, blobs(hash));
+
+        nodeManager.update(NodeDTO.of(node.getId().toString(), "Муравей", text));
+        assertEquals(text, nodeManager.findById(node.getId().toString()).orElseThrow().getContent().getText());
+    }
+
+    private int references(String hash) {
+        return jdbcTemplate.queryForObject("select count(*) from multi_content where text_hash = ?", Integer.class, hash);
+    }
+
+    private int blobs(String hash) {
+        return jdbcTemplate.queryForObject("select count(*) from content_blob where hash = ?", Integer.class, hash);
+    }
+}
@@ -0,0 +1,95 @@
+package hex.multinode.storage.service.graph;
+
+import hex.multinode.storage.model.dto.LinkDTO;
+import hex.multinode.storage.model.dto.StoryStatsDTO;
+import hex.multinode.storage.model.generator.UUIDV7Generator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StoryGraphAnalyticsTest {
+
+    private final StoryGraphIndex index = new StoryGraphIndex(null, null, null, null);
+    private final StoryGraphAnalytics analytics = new StoryGraphAnalytics(index);
+
+    private final UUID start = UUIDV7Generator.generateUuidV7();
+    private final UUID summer = UUIDV7Generator.generateUuidV7();
+    private final UUID autumn = UUIDV7Generator.generateUuidV7();
+    private final UUID winter = UUIDV7Generator.generateUuidV7();
+    private final UUID ending = UUIDV7Generator.generateUuidV7();
+    private final UUID lost = UUIDV7Generator.generateUuidV7();
+
+    /**
+     * start -> summer <-> autumn -> winter -> ending, start -> ending, lost -> lost
+     */
+    @BeforeEach
+    public void initCase() {
+        index.load(Stream.of(start, summer, autumn, winter, ending, lost), Stream.of(
+                link(start, summer, "Лето красное пропела"),
+                link(start, ending, "Сразу к муравью"),
+                link(summer, autumn, "Оглянуться не успела"),
+                link(autumn, summer, "Снова лето"),
+                link(autumn, winter, "Зима катит в глаза"),
+                link(winter, ending, "Ты все пела? Это дело"),
+                link(lost, lost, "Сама в себя")));
+    }
+
+    @Test
+    public void storyStatsFromEntry() {
+        StoryStatsDTO stats = analytics.analyze(start);
+        assertEquals(start, stats.rootId());
+        assertEquals(5, stats.reachableNodes());
+        assertEquals(6, stats.reachableLinks());
+        assertEquals(1.5, stats.branchingFactor());
+
+        assertEquals(1, stats.endings().size());
+        StoryStatsDTO.Ending storyEnding = stats.endings().get(0);
+        assertEquals(ending, storyEnding.nodeId());
+        assertEquals(1, storyEnding.shortestPath());
+        assertEquals(3, storyEnding.longestPath());
+
+        assertEquals(1, stats.cycles().size());
+        assertEquals(Set.of(summer, autumn), Set.copyOf(stats.cycles().get(0)));
+    }
+
+    @Test
+    public void selfLoopIsCycle() {
+        StoryStatsDTO stats = analytics.analyze(lost);
+        assertEquals(1, stats.reachableNodes());
+        assertTrue(stats.endings().isEmpty());
+        assertEquals(List.of(List.of(lost)), stats.cycles());
+    }
+
+    @Test
+    public void closedCycleIsUnreachable() {
+        assertEquals(List.of(lost), analytics.findUnreachable());
+        index.addLink(link(ending, lost, "Пойди-ка попляши"));
+        assertTrue(analytics.findUnreachable().isEmpty());
+    }
+
+    @Test
+    public void statsFollowGraphChanges() {
+        assertEquals(1, analytics.analyze(start).endings().size());
+        UUID spring = UUIDV7Generator.generateUuidV7();
+        index.addLink(link(winter, spring, "Весна"));
+        StoryStatsDTO stats = analytics.analyze(start);
+        assertEquals(2, stats.endings().size());
+        assertEquals(6, stats.reachableNodes());
+    }
+
+    @Test
+    public void unknownRootIsRejected() {
+        assertThrows(NoSuchElementException.class, () -> analytics.analyze(UUIDV7Generator.generateUuidV7()));
+    }
+
+    private static LinkDTO link(UUID parent, UUID child, String choiceText) {
+        return new LinkDTO(UUIDV7Generator.generateUuidV7(), parent, child, choiceText);
+    }
+}
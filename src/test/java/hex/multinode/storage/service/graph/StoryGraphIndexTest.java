@@ -0,0 +1,80 @@
+package hex.multinode.storage.service.graph;
+
+import hex.multinode.storage.model.dto.LinkDTO;
+import hex.multinode.storage.model.generator.UUIDV7Generator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StoryGraphIndexTest {
+
+    private final StoryGraphIndex index = new StoryGraphIndex(null, null, null, null);
+
+    private final UUID first = UUIDV7Generator.generateUuidV7();
+    private final UUID second = UUIDV7Generator.generateUuidV7();
+    private final UUID third = UUIDV7Generator.generateUuidV7();
+
+    @BeforeEach
+    public void initCase() {
+        index.load(Stream.of(first, second, third), Stream.of(
+                link(first, second, "Лето красное пропела"),
+                link(first, third, "Муравей ее жалеет"),
+                link(second, third, "Зима катит в глаза")));
+    }
+
+    @Test
+    public void forksKeepCreationOrder() {
+        List<LinkDTO> forks = index.forksOf(first);
+        assertEquals(2, forks.size());
+        assertEquals(second, forks.get(0).childNodeId());
+        assertEquals(third, forks.get(1).childNodeId());
+        assertEquals("Муравей ее жалеет", forks.get(1).choiceText());
+    }
+
+    @Test
+    public void rootsOfMergedBranch() {
+        List<LinkDTO> roots = index.rootsOf(third);
+        assertEquals(2, roots.size());
+        assertEquals(first, roots.get(0).parentNodeId());
+        assertEquals(second, roots.get(1).parentNodeId());
+    }
+
+    @Test
+    public void removeNodeDropsItsLinks() {
+        index.removeNode(second);
+        assertFalse(index.contains(second));
+        assertEquals(2, index.nodeCount());
+        assertEquals(1, index.linkCount());
+        assertEquals(1, index.forksOf(first).size());
+        assertEquals(1, index.rootsOf(third).size());
+        assertThrows(NoSuchElementException.class, () -> index.forksOf(second));
+    }
+
+    @Test
+    public void freedSlotIsReused() {
+        index.removeNode(third);
+        UUID fourth = UUIDV7Generator.generateUuidV7();
+        index.addLink(link(second, fourth, "Без тепла - заледенеет"));
+        assertEquals(3, index.nodeCount());
+        assertEquals(fourth, index.forksOf(second).get(0).childNodeId());
+        assertTrue(index.forksOf(fourth).isEmpty());
+    }
+
+    @Test
+    public void selfLinkIsRemovedOnce() {
+        index.addLink(link(third, third, "Снова"));
+        assertEquals(4, index.linkCount());
+        index.removeNode(third);
+        assertEquals(1, index.linkCount());
+    }
+
+    private static LinkDTO link(UUID parent, UUID child, String choiceText) {
+        return new LinkDTO(UUIDV7Generator.generateUuidV7(), parent, child, choiceText);
+    }
+}
@@ -0,0 +1,96 @@
+package hex.multinode.storage.service.outbox;
+
+import hex.multinode.storage.NodeStorageApplication;
+import hex.multinode.storage.config.H2JpaTestConfig;
+import hex.multinode.storage.model.data.MultiNode;
+import hex.multinode.storage.model.dto.LinkDTO;
+import hex.multinode.storage.model.dto.NodeDTO;
+import hex.multinode.storage.service.NodeManager;
+import hex.multinode.storage.service.event.NodeEvent;
+import hex.multinode.storage.service.event.NodeEventCodec;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.mock.MockProducerFactory;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Outbox on; the scheduled relay is idle, events are published by a relay over a mock producer
+ */
+@SpringBootTest(classes = {NodeStorageApplication.class, H2JpaTestConfig.class},
+        properties = {"spring.datasource.url=jdbc:h2:mem:outbox;DB_CLOSE_DELAY=-1", "grpc.enabled=false",
+                "storage.outbox.enabled=true", "storage.outbox.relay-interval=1h"})
+@DirtiesContext
+public class NodeOutboxTest {
+
+    @Autowired
+    private NodeManager<MultiNode> nodeManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void committedChangesArePublishedInOrder() {
+        MultiNode node = nodeManager.save(NodeDTO.of("Стрекоза", "Лето красное пропела"));
+        String id = node.getId().toString();
+        nodeManager.fork(id, NodeDTO.of("Муравей", "Кумушка, мне странно это"), "Отказать");
+        LinkDTO link = nodeManager.findForks(id).get(0);
+        assertThrows(OptimisticLockingFailureException.class, () ->
+                nodeManager.update(NodeDTO.of(id, "Стрекоза", null, node.getVersion() + 10)));
+        nodeManager.deleteById(link.childNodeId().toString());
+
+        List<NodeEvent> expected = List.of(
+                NodeEvent.created(node.getId()),
+                NodeEvent.created(link.childNodeId()),
+                NodeEvent.forked(link),
+                NodeEvent.deleted(link.childNodeId()),
+                NodeEvent.updated(node.getId()));
+        List<NodeEventCodec.Envelope> stored = jdbcTemplate.queryForList(
+                        "select payload from node_outbox order by id", byte[].class).stream()
+                .map(NodeEventCodec::decode)
+                .toList();
+        assertEquals(expected, stored.stream().map(NodeEventCodec.Envelope::event).toList());
+
+        // KafkaTemplate closes producers it does not share after every send
+        MockProducer<String, byte[]> producer = new MockProducer<>(true, new StringSerializer(), new ByteArraySerializer()) {
+            @Override
+            public void close(Duration timeout) {
+            }
+        };
+        NodeOutboxRelay relay = new NodeOutboxRelay(jdbcTemplate,
+                new KafkaTemplate<>(new MockProducerFactory<>(() -> producer)),
+                "node-events", 2, Duration.ofSeconds(5), Duration.ofHours(1));
+        try {
+            assertEquals(expected.size(), relay.relay());
+        } finally {
+            relay.close();
+        }
+
+        List<ProducerRecord<String, byte[]>> sent = producer.history();
+        assertEquals(stored, sent.stream().map(record -> NodeEventCodec.decode(record.value())).toList());
+        assertEquals(stored.stream().map(envelope -> envelope.event().nodeId().toString()).toList(),
+                sent.stream().map(ProducerRecord::key).toList());
+        assertEquals(stored.size(), stored.stream().map(NodeEventCodec.Envelope::eventId).distinct().count());
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from node_outbox", Integer.class));
+    }
+
+    @Test
+    public void failedRelayBacksOff() {
+        Duration interval = Duration.ofMillis(100);
+        assertEquals(Duration.ofMillis(200), NodeOutboxRelay.backoff(interval, 1));
+        assertEquals(Duration.ofMillis(800), NodeOutboxRelay.backoff(interval, 3));
+        assertEquals(NodeOutboxRelay.MAX_BACKOFF, NodeOutboxRelay.backoff(interval, 100));
+    }
+}
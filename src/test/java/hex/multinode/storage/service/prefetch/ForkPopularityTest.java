@@ -0,0 +1,87 @@
+package hex.multinode.storage.service.prefetch;
+
+import hex.multinode.storage.NodeStorageApplication;
+import hex.multinode.storage.config.H2JpaTestConfig;
+import hex.multinode.storage.model.data.MultiNode;
+import hex.multinode.storage.model.dto.ForkPopularityDTO;
+import hex.multinode.storage.model.dto.GraphImportDTO;
+import hex.multinode.storage.service.NodeManager;
+import hex.multinode.storage.service.cache.NodeCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = {NodeStorageApplication.class, H2JpaTestConfig.class})
+public class ForkPopularityTest {
+
+    @Autowired
+    private NodeManager<MultiNode> nodeManager;
+
+    @Autowired
+    private ForkPopularity forkPopularity;
+
+    @Autowired
+    private NodeCache nodeCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void traversalsAreCountedAndFlushed() {
+        Map<String, UUID> ids = importFable();
+        String startId = ids.get("1").toString();
+        nodeManager.walk(startId, List.of("1"));
+        nodeManager.walk(startId, List.of("1"));
+        nodeManager.walk(startId, List.of("0"));
+
+        List<ForkPopularityDTO> forks = nodeManager.findForkPopularity(startId);
+        assertEquals(List.of("Помочь", "Отказать", "Промолчать"), forks.stream().map(ForkPopularityDTO::choiceText).toList());
+        assertEquals(List.of(2L, 1L, 0L), forks.stream().map(ForkPopularityDTO::traversals).toList());
+
+        forkPopularity.flush();
+        UUID helpId = forks.get(0).linkId();
+        assertEquals(2L, jdbcTemplate.queryForObject(
+                "select traversals from link_traversal where link_id = ?", Long.class, helpId));
+        nodeManager.walk(startId, List.of(helpId.toString()));
+        assertEquals(3L, forkPopularity.traversals(helpId));
+        forkPopularity.flush();
+        assertEquals(3L, jdbcTemplate.queryForObject(
+                "select traversals from link_traversal where link_id = ?", Long.class, helpId));
+    }
+
+    @Test
+    public void readPrefetchesMostFollowedChildren() throws InterruptedException {
+        Map<String, UUID> ids = importFable();
+        nodeManager.walk(ids.get("1").toString(), List.of("1"));
+        List.of("2", "3", "4").forEach(key -> nodeCache.invalidate(ids.get(key)));
+
+        nodeManager.findSnapshotById(ids.get("1").toString());
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!(nodeCache.contains(ids.get("4")) && nodeCache.contains(ids.get("2")))
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(nodeCache.contains(ids.get("4")));
+        assertTrue(nodeCache.contains(ids.get("2")));
+        assertFalse(nodeCache.contains(ids.get("3")));
+    }
+
+    private Map<String, UUID> importFable() {
+        return nodeManager.importGraph(new GraphImportDTO(
+                List.of(new GraphImportDTO.Node("1", "Стрекоза", "Лето красное пропела"),
+                        new GraphImportDTO.Node("2", "Муравей", "Кумушка, мне странно это"),
+                        new GraphImportDTO.Node("3", "Муравей", "Муравей молчит"),
+                        new GraphImportDTO.Node("4", "Муравей", "Муравей ее жалеет")),
+                List.of(new GraphImportDTO.Link("1", "2", "Отказать"),
+                        new GraphImportDTO.Link("1", "4", "Помочь"),
+                        new GraphImportDTO.Link("1", "3", "Промолчать"))));
+    }
+}
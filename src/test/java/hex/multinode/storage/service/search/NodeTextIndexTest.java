@@ -0,0 +1,77 @@
+package hex.multinode.storage.service.search;
+
+import hex.multinode.storage.model.dto.NodeView;
+import hex.multinode.storage.model.dto.TextSearchHit;
+import hex.multinode.storage.model.generator.UUIDV7Generator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NodeTextIndexTest {
+
+    private final NodeTextIndex index = new NodeTextIndex(null, null, null, "", Duration.ofHours(1));
+
+    private final UUID dragonfly = UUIDV7Generator.generateUuidV7();
+    private final UUID ant = UUIDV7Generator.generateUuidV7();
+    private final UUID winter = UUIDV7Generator.generateUuidV7();
+
+    @BeforeEach
+    public void initCase() {
+        index.load(Stream.of(
+                view(dragonfly, "Стрекоза", "Попрыгунья Стрекоза лето красное пропела"),
+                view(ant, "Муравей", "Стрекоза ползет к трудолюбивому Муравью"),
+                view(winter, "Зима", "Оглянуться не успела, как зима катит в глаза")));
+    }
+
+    @AfterEach
+    public void closeIndex() throws IOException {
+        index.close();
+    }
+
+    @Test
+    public void titleMatchRanksFirst() {
+        List<TextSearchHit> hits = index.search("стрекоза", null, 10);
+        assertEquals(List.of(dragonfly, ant), hits.stream().map(TextSearchHit::id).toList());
+        assertTrue(hits.get(0).score() > hits.get(1).score());
+        assertEquals("Стрекоза", hits.get(0).title());
+    }
+
+    @Test
+    public void wordFormsPhrasesAndExclusions() {
+        assertEquals(List.of(ant), ids(index.search("муравьи", null, 10)));
+        assertEquals(List.of(dragonfly), ids(index.search("\"лето красное\"", null, 10)));
+        assertEquals(List.of(dragonfly), ids(index.search("стрекоза -муравей", null, 10)));
+        assertEquals(2, index.search("зима | муравей", null, 10).size());
+        assertTrue(index.search("стрекоза зима", null, 10).isEmpty());
+    }
+
+    @Test
+    public void searchAfterLastHit() {
+        List<TextSearchHit> first = index.search("стрекоза", null, 1);
+        List<TextSearchHit> second = index.search("стрекоза", first.get(0), 1);
+        assertEquals(List.of(ant), ids(second));
+        assertTrue(index.search("стрекоза", second.get(0), 1).isEmpty());
+    }
+
+    @Test
+    public void stopWordsOnlyFindNothing() {
+        assertTrue(index.search("не как", null, 10).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> index.search(" ", null, 10));
+    }
+
+    private static List<UUID> ids(List<TextSearchHit> hits) {
+        return hits.stream().map(TextSearchHit::id).toList();
+    }
+
+    private static NodeView view(UUID id, String title, String text) {
+        return new NodeView(id, title, text, null, null, 0);
+    }
+}
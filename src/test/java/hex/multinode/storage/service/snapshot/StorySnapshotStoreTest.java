@@ -0,0 +1,109 @@
+package hex.multinode.storage.service.snapshot;
+
+import hex.multinode.storage.NodeStorageApplication;
+import hex.multinode.storage.config.H2JpaTestConfig;
+import hex.multinode.storage.model.data.MultiNode;
+import hex.multinode.storage.model.dto.LinkDTO;
+import hex.multinode.storage.model.dto.NodeDTO;
+import hex.multinode.storage.model.dto.NodeView;
+import hex.multinode.storage.model.dto.SnapshotInfo;
+import hex.multinode.storage.repository.db.LinkDBRepository;
+import hex.multinode.storage.repository.db.NodeDBRepository;
+import hex.multinode.storage.service.NodeManager;
+import hex.multinode.storage.service.content.ContentStore;
+import hex.multinode.storage.service.event.NodeEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Export from the DB, startup check against the DB and import into an empty DB
+ */
+@SpringBootTest(classes = {NodeStorageApplication.class, H2JpaTestConfig.class},
+        properties = {"spring.datasource.url=jdbc:h2:mem:snapshot;DB_CLOSE_DELAY=-1", "grpc.enabled=false"})
+@DirtiesContext
+public class StorySnapshotStoreTest {
+
+    @Autowired
+    private NodeManager<MultiNode> nodeManager;
+
+    @Autowired
+    private StorySnapshotStore snapshotStore;
+
+    @Autowired
+    private NodeDBRepository nodeRepository;
+
+    @Autowired
+    private LinkDBRepository linkRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ContentStore contentStore;
+
+    @TempDir
+    private Path dir;
+
+    @Test
+    public void exportedSnapshotIsUsedUntilTheDbChangesAndRestoresAnEmptyDb() throws IOException {
+        MultiNode root = nodeManager.save(NodeDTO.of("Стрекоза и муравей", "Попрыгунья Стрекоза"));
+        nodeManager.fork(root.getId().toString(), NodeDTO.of("Лето", "Лето красное пропела. ".repeat(20)), "Петь");
+        nodeManager.fork(root.getId().toString(), NodeDTO.of("Зима", null), "Плясать");
+        List<LinkDTO> forks = nodeManager.findForks(root.getId().toString());
+        UUID summer = forks.get(0).childNodeId();
+        UUID winter = forks.get(1).childNodeId();
+        nodeManager.fork(summer.toString(), winter.toString(), "Оглянуться");
+        List<NodeView> views = nodeRepository.findViewsByIdIn(List.of(root.getId(), summer, winter));
+
+        Path file = dir.resolve("story.snapshot");
+        SnapshotInfo info = snapshotStore.export(file);
+        assertEquals(3, info.nodes());
+        assertEquals(3, info.links());
+        assertEquals(Files.size(file), info.bytes());
+
+        StorySnapshotStore current = startWith(file);
+        assertTrue(current.loaded().isPresent());
+        for (NodeView view : views) {
+            assertEquals(view, current.findView(view.id()).orElseThrow());
+        }
+        assertEquals(List.of("Петь", "Плясать"), current.loaded().get().forksOf(root.getId()).stream()
+                .map(LinkDTO::choiceText).toList());
+        current.onNodeEvent(NodeEvent.updated(root.getId()));
+        assertTrue(current.findView(root.getId()).isEmpty());
+
+        nodeManager.update(NodeDTO.of(winter.toString(), "Зима", "Зима катит в глаза"));
+        assertTrue(startWith(file).loaded().isEmpty());
+
+        jdbcTemplate.update("delete from multi_link");
+        jdbcTemplate.update("delete from multi_node");
+        jdbcTemplate.update("delete from multi_content");
+        StorySnapshotStore restored = startWith(file);
+        assertTrue(restored.loaded().isPresent());
+        assertEquals(3, nodeRepository.count());
+        assertEquals(3, linkRepository.count());
+        assertEquals(Set.copyOf(views),
+                Set.copyOf(nodeRepository.findViewsByIdIn(List.of(root.getId(), summer, winter))));
+    }
+
+    private StorySnapshotStore startWith(Path file) {
+        return new StorySnapshotStore(nodeRepository, linkRepository, jdbcTemplate, transactionTemplate,
+                contentStore, file.toString(), false);
+    }
+}
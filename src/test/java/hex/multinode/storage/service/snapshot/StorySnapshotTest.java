@@ -0,0 +1,104 @@
+package hex.multinode.storage.service.snapshot;
+
+import hex.multinode.storage.model.dto.LinkDTO;
+import hex.multinode.storage.model.dto.NodeView;
+import hex.multinode.storage.model.generator.UUIDV7Generator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StorySnapshotTest {
+
+    @TempDir
+    private Path dir;
+
+    private final UUID first = UUIDV7Generator.generateUuidV7();
+    private final UUID second = UUIDV7Generator.generateUuidV7();
+    private final UUID third = UUIDV7Generator.generateUuidV7();
+
+    private final LocalDateTime created = LocalDateTime.of(2024, 2, 1, 12, 0, 0, 123_456_000);
+    private final LocalDateTime updated = created.plusDays(1);
+
+    @Test
+    public void writtenGraphIsReadFromTheMapping() throws IOException {
+        Path file = dir.resolve("story.snapshot");
+        List<LinkDTO> links = List.of(
+                link(first, third, "Муравей ее жалеет"),
+                link(second, third, "Зима катит в глаза"),
+                link(first, second, "Лето красное пропела"));
+        long size = StorySnapshotWriter.write(file, Stream.of(
+                new NodeView(first, "Стрекоза", "Попрыгунья Стрекоза", created, updated, 3),
+                new NodeView(second, "Лето", null, created, created, 0),
+                new NodeView(third, "Зима", "Все прошло", created, null, 1)), links.stream());
+
+        StorySnapshot snapshot = StorySnapshot.open(file);
+        assertEquals(Files.size(file), size);
+        assertEquals(3, snapshot.nodeCount());
+        assertEquals(3, snapshot.linkCount());
+        assertEquals(updated, snapshot.lastUpdated());
+
+        assertEquals(new NodeView(first, "Стрекоза", "Попрыгунья Стрекоза", created, updated, 3),
+                snapshot.findView(first).orElseThrow());
+        assertNull(snapshot.findView(second).orElseThrow().text());
+        assertNull(snapshot.findView(third).orElseThrow().dateUpdated());
+        assertTrue(snapshot.findView(UUIDV7Generator.generateUuidV7()).isEmpty());
+
+        assertEquals(List.of(links.get(0), links.get(2)), snapshot.forksOf(first));
+        assertEquals(List.of(), snapshot.forksOf(third));
+        assertEquals(links, snapshot.links().toList());
+        assertEquals(List.of(first, second, third), snapshot.nodeIds().toList());
+    }
+
+    @Test
+    public void repeatedShortStringsAreStoredOnce() throws IOException {
+        Path file = dir.resolve("story.snapshot");
+        String choice = "Дальше";
+        StorySnapshotWriter.write(file, Stream.of(
+                new NodeView(first, "Глава", null, created, created, 0),
+                new NodeView(second, "Глава", null, created, created, 0),
+                new NodeView(third, "Глава", null, created, created, 0)), Stream.of(
+                link(first, second, choice),
+                link(second, third, choice)));
+
+        long headerAndRecords = StorySnapshotFormat.HEADER_SIZE + 3L * StorySnapshotFormat.NODE_SIZE
+                + 2L * (StorySnapshotFormat.LINK_SIZE + Integer.BYTES);
+        long strings = 2L * Integer.BYTES + "Глава".getBytes(StandardCharsets.UTF_8).length
+                + choice.getBytes(StandardCharsets.UTF_8).length;
+        assertEquals(headerAndRecords + strings, Files.size(file));
+        assertEquals(choice, StorySnapshot.open(file).forksOf(second).get(0).choiceText());
+    }
+
+    @Test
+    public void unorderedNodesAndDanglingLinksAreRejected() throws IOException {
+        Path file = dir.resolve("story.snapshot");
+        assertThrows(IllegalArgumentException.class, () -> StorySnapshotWriter.write(file, Stream.of(
+                new NodeView(second, "Лето", null, created, created, 0),
+                new NodeView(first, "Стрекоза", null, created, created, 0)), Stream.of()));
+        assertThrows(IllegalArgumentException.class, () -> StorySnapshotWriter.write(file, Stream.of(
+                new NodeView(first, "Стрекоза", null, created, created, 0)), Stream.of(link(first, second, "Лето"))));
+        assertFalse(Files.exists(file));
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    public void otherFilesAreNotOpened() throws IOException {
+        Path file = Files.writeString(dir.resolve("story.snapshot"), "not a snapshot");
+        assertThrows(IllegalArgumentException.class, () -> StorySnapshot.open(file));
+    }
+
+    private static LinkDTO link(UUID parent, UUID child, String choice) {
+        return new LinkDTO(UUIDV7Generator.generateUuidV7(), parent, child, choice);
+    }
+}
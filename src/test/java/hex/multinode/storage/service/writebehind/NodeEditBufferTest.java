@@ -0,0 +1,154 @@
+package hex.multinode.storage.service.writebehind;
+
+import hex.multinode.storage.model.data.ContentBlob;
+import hex.multinode.storage.model.dto.NodeDTO;
+import hex.multinode.storage.model.generator.UUIDV7Generator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NodeEditBufferTest {
+
+    @TempDir
+    private Path dir;
+
+    private final UUID first = UUIDV7Generator.generateUuidV7();
+    private final UUID second = UUIDV7Generator.generateUuidV7();
+
+    @Test
+    public void editsOfOneNodeAreCoalesced() throws IOException {
+        NodeEditBuffer buffer = open();
+        buffer.submit(NodeDTO.of(first.toString(), "Стрекоза", "Попрыгунья"));
+        buffer.submit(NodeDTO.of(first.toString(), "Стрекоза", "Попрыгунья Стрекоза"));
+        buffer.submitAll(List.of(NodeDTO.of(second.toString(), "Муравей", null)));
+
+        assertEquals(2, buffer.size());
+        assertEquals("Попрыгунья Стрекоза", buffer.pending(first).orElseThrow().contentText());
+        assertNull(buffer.pending(second).orElseThrow().contentText());
+        assertTrue(buffer.pending(UUIDV7Generator.generateUuidV7()).isEmpty());
+        buffer.close();
+    }
+
+    @Test
+    public void committedEditsLeaveTheJournal() throws IOException {
+        NodeEditBuffer buffer = open();
+        buffer.submit(NodeDTO.of(first.toString(), "Стрекоза", "Попрыгунья"));
+        List<NodeEditBuffer.PendingEdit> batch = buffer.drain(10);
+        buffer.submit(NodeDTO.of(second.toString(), "Муравей", "Лето красное"));
+        buffer.completed(batch);
+
+        assertFalse(buffer.hasPending(first));
+        assertTrue(buffer.hasPending(second));
+        buffer.close();
+
+        NodeEditBuffer restarted = open();
+        assertEquals(1, restarted.size());
+        assertEquals("Лето красное", restarted.pending(second).orElseThrow().contentText());
+        restarted.completed(restarted.drain(10));
+        assertEquals(0, restarted.size());
+        restarted.close();
+        assertEquals(0, journalBytes());
+        assertEquals(0, open().size());
+    }
+
+    @Test
+    public void editReplacedDuringFlushStaysPending() throws IOException {
+        NodeEditBuffer buffer = open();
+        buffer.submit(NodeDTO.of(first.toString(), "Стрекоза", "Попрыгунья"));
+        List<NodeEditBuffer.PendingEdit> batch = buffer.drain(10);
+        buffer.submit(NodeDTO.of(first.toString(), "Стрекоза", "Попрыгунья Стрекоза"));
+        buffer.completed(batch);
+        buffer.close();
+
+        assertEquals("Попрыгунья Стрекоза", open().pending(first).orElseThrow().contentText());
+    }
+
+    @Test
+    public void tornTailIsIgnoredOnRecovery() throws IOException {
+        NodeEditBuffer buffer = open();
+        buffer.submit(NodeDTO.of(first.toString(), "Стрекоза", "Попрыгунья"));
+        buffer.close();
+        Path segment;
+        try (Stream<Path> files = Files.list(dir)) {
+            segment = files.filter(file -> file.toFile().length() > 0).findFirst().orElseThrow();
+        }
+        Files.write(segment, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        NodeEditBuffer recovered = open();
+        assertEquals(1, recovered.size());
+        assertEquals("Попрыгунья", recovered.pending(first).orElseThrow().contentText());
+    }
+
+    @Test
+    public void concurrentEditsAreAllJournaled() throws Exception {
+        NodeEditBuffer buffer = open();
+        List<UUID> ids = IntStream.range(0, 200).mapToObj(i -> UUIDV7Generator.generateUuidV7()).toList();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = ids.stream()
+                    .<Future<?>>map(id -> executor.submit(() ->
+                            buffer.submit(NodeDTO.of(id.toString(), "Глава", id.toString()))))
+                    .toList();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        buffer.close();
+
+        NodeEditBuffer recovered = open();
+        assertEquals(ids.size(), recovered.size());
+        for (UUID id : ids) {
+            assertEquals(id.toString(), recovered.pending(id).orElseThrow().contentText());
+        }
+    }
+
+    @Test
+    public void longTextsSurviveRecovery() throws IOException {
+        String text = "Попрыгунья Стрекоза лето красное пропела; ".repeat(2000);
+        assertTrue(text.getBytes(StandardCharsets.UTF_8).length > 65535);
+        NodeEditBuffer buffer = open();
+        buffer.submit(NodeDTO.of(first.toString(), "Стрекоза", text));
+        assertThrows(IllegalArgumentException.class, () -> buffer.submit(
+                NodeDTO.of(second.toString(), "Муравей", "Муравей".repeat(ContentBlob.MAX_BYTES / 7))));
+        buffer.close();
+
+        NodeEditBuffer recovered = open();
+        assertEquals(1, recovered.size());
+        assertEquals(text, recovered.pending(first).orElseThrow().contentText());
+        assertEquals("Стрекоза", recovered.pending(first).orElseThrow().title());
+    }
+
+    @Test
+    public void disabledBufferRejectsEdits() {
+        NodeEditBuffer buffer = new NodeEditBuffer(new SimpleMeterRegistry(), false, dir.toString());
+        assertThrows(IllegalStateException.class, () -> buffer.submit(NodeDTO.of(first.toString(), "Стрекоза", null)));
+        assertEquals(0, buffer.size());
+    }
+
+    private NodeEditBuffer open() {
+        return new NodeEditBuffer(new SimpleMeterRegistry(), true, dir.toString());
+    }
+
+    private long journalBytes() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package hex.multinode.storage.service.writebehind;
+
+import hex.multinode.storage.NodeStorageApplication;
+import hex.multinode.storage.config.H2JpaTestConfig;
+import hex.multinode.storage.model.data.MultiNode;
+import hex.multinode.storage.model.dto.NodeDTO;
+import hex.multinode.storage.model.dto.NodeView;
+import hex.multinode.storage.repository.db.NodeDBRepository;
+import hex.multinode.storage.service.NodeManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Manager in write-behind mode; the window is long, so batches are written by explicit flushes
+ */
+@SpringBootTest(classes = {NodeStorageApplication.class, H2JpaTestConfig.class},
+        properties = {"spring.datasource.url=jdbc:h2:mem:write-behind;DB_CLOSE_DELAY=-1", "grpc.enabled=false",
+                "storage.write-behind.enabled=true", "storage.write-behind.window=1h",
+                "storage.write-behind.journal-dir=target/write-behind-test/${random.uuid}"})
+@DirtiesContext
+public class NodeEditFlusherTest {
+
+    @Autowired
+    private NodeManager<MultiNode> nodeManager;
+
+    @Autowired
+    private NodeEditFlusher flusher;
+
+    @Autowired
+    private NodeEditBuffer buffer;
+
+    @Autowired
+    private NodeDBRepository nodeRepository;
+
+    @Test
+    public void bufferedEditsAreReadAtOnceAndWrittenAsOne() {
+        MultiNode node = nodeManager.save(NodeDTO.of("Стрекоза и муравей", "Попрыгунья"));
+        String id = node.getId().toString();
+
+        MultiNode accepted = nodeManager.update(NodeDTO.of(id, "Стрекоза и муравей", "Попрыгунья Стрекоза"));
+        nodeManager.update(NodeDTO.of(id, "Стрекоза", "Лето красное пропела"));
+        assertEquals("Попрыгунья Стрекоза", accepted.getContent().getText());
+        assertEquals(node.getVersion(), accepted.getVersion());
+
+        assertEquals("Лето красное пропела", nodeManager.findSnapshotById(id).orElseThrow().text());
+        assertEquals("Стрекоза", nodeManager.walk(id, List.of()).nodes().get(0).title());
+        assertEquals("Попрыгунья", nodeRepository.findViewById(node.getId()).orElseThrow().text());
+        assertThrows(OptimisticLockingFailureException.class, () ->
+                nodeManager.update(NodeDTO.of(id, "Муравей", null, node.getVersion())));
+
+        assertEquals(1, flusher.flush());
+        assertEquals(0, buffer.size());
+        NodeView stored = nodeRepository.findViewById(node.getId()).orElseThrow();
+        assertEquals("Стрекоза", stored.title());
+        assertEquals("Лето красное пропела", stored.text());
+        assertEquals(node.getVersion() + 1, stored.version());
+        assertEquals("Лето красное пропела", nodeManager.findSnapshotById(id).orElseThrow().text());
+
+        nodeManager.update(NodeDTO.of(id, "Муравей", "Зима", stored.version()));
+        assertEquals("Муравей", nodeManager.findSnapshotById(id).orElseThrow().title());
+    }
+
+    @Test
+    public void editsOfMissingOrDeletedNodesAreDropped() {
+        assertThrows(NoSuchElementException.class, () ->
+                nodeManager.update(NodeDTO.of(UUID.randomUUID().toString(), "Муравей", null)));
+
+        MultiNode node = nodeManager.save(NodeDTO.of("Стрекоза и муравей", "Попрыгунья"));
+        nodeManager.update(NodeDTO.of(node.getId().toString(), "Стрекоза", null));
+        nodeManager.deleteById(node.getId().toString());
+        flusher.flush();
+        assertEquals(0, buffer.size());
+        assertTrue(nodeRepository.findById(node.getId()).isEmpty());
+    }
+
+    @Test
+    public void editRejectedByTheDbDoesNotStallOthers() {
+        MultiNode first = nodeManager.save(NodeDTO.of("Стрекоза", "Попрыгунья"));
+        MultiNode second = nodeManager.save(NodeDTO.of("Муравей", "Кумушка"));
+        MultiNode third = nodeManager.save(NodeDTO.of("Соловей", "Лето красное"));
+        String tooLong = "Стрекоза".repeat(40);
+        assertThrows(IllegalArgumentException.class, () ->
+                nodeManager.update(NodeDTO.of(first.getId().toString(), tooLong, null)));
+        assertEquals(0, buffer.size());
+
+        // journaled before the check, e.g. replayed from an older journal
+        buffer.submitAll(List.of(
+                NodeDTO.of(first.getId().toString(), "Стрекоза и муравей", "Попрыгунья Стрекоза"),
+                NodeDTO.of(second.getId().toString(), tooLong, "Кумушка, мне странно это"),
+                NodeDTO.of(third.getId().toString(), "Соловей и муравей", null)));
+
+        assertEquals(2, flusher.flush());
+        assertEquals(0, buffer.size());
+        assertEquals("Стрекоза и муравей", nodeRepository.findViewById(first.getId()).orElseThrow().title());
+        assertEquals("Муравей", nodeRepository.findViewById(second.getId()).orElseThrow().title());
+        assertEquals("Соловей и муравей", nodeRepository.findViewById(third.getId()).orElseThrow().title());
+    }
+}